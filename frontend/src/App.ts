@@ -1,4 +1,4 @@
-import { eventApi, spaceApi, authApi, registrationApi, userApi, EventDTO, SpaceDTO, UserDetailsDTO, isTokenExpired } from './api';
+import { eventApi, spaceApi, authApi, registrationApi, userApi, EventDTO, SpaceDTO, SpaceAvailabilityDelta, UserDetailsDTO, isTokenExpired } from './api';
 
 export class App {
     private currentEvent: EventDTO | null = null;
@@ -8,6 +8,10 @@ export class App {
     private userDetails: UserDetailsDTO | null = null;
     private pendingBookingSpaceId: number | null = null; // Store spaceId when user clicks to book while not logged in
     private isRegistering: boolean = false; // Prevent duplicate registration submissions
+    private availabilityStream: EventSource | null = null;
+    private availabilityStreamEventId: number | null = null;
+    private lastAvailabilityVersion: number = 0;
+    private pendingAvailability: SpaceAvailabilityDelta[] | null = null; // Deltas received while resyncing
     private originalProfileValues: { age: number | null; location: string | null; height: string | null; size: string | null } | null = null;
 
     async init() {
@@ -61,12 +65,84 @@ export class App {
     private async loadEvent() {
         try {
             this.currentEvent = await eventApi.getUpcomingEvent();
+            this.watchAvailability();
         } catch (error) {
             console.error('Failed to load event:', error);
             this.showError('Failed to load event information');
         }
     }
 
+    // Keeps the spaces of the shown event up to date as others book and cancel
+    private watchAvailability() {
+        const eventId = this.currentEvent && !this.currentEvent.cancelled ? this.currentEvent.id : null;
+        if (eventId === this.availabilityStreamEventId) {
+            return;
+        }
+
+        this.availabilityStream?.close();
+        this.availabilityStream = null;
+        this.availabilityStreamEventId = eventId;
+        if (eventId === null) {
+            return;
+        }
+        this.availabilityStream = eventApi.streamAvailability(
+            eventId,
+            (deltas) => this.applyAvailability(eventId, deltas),
+            () => this.resyncAvailability(eventId));
+    }
+
+    // On every (re)connect: changes made before subscribing or while disconnected are not sent,
+    // and the server's versions start over after a restart, so reload and start counting afresh
+    private async resyncAvailability(eventId: number) {
+        if (this.pendingAvailability) return;
+        this.pendingAvailability = [];
+        this.lastAvailabilityVersion = 0;
+        try {
+            const event = await eventApi.getUpcomingEvent();
+            if (this.availabilityStreamEventId !== eventId) return;
+            this.currentEvent = event;
+        } catch (error) {
+            console.error('Failed to reload event:', error);
+        } finally {
+            const pending = this.pendingAvailability ?? [];
+            this.pendingAvailability = null;
+            if (this.availabilityStreamEventId === eventId) {
+                // Deltas that arrived during the reload may be newer than what it returned
+                this.applyAvailability(eventId, pending, true);
+            }
+        }
+        this.watchAvailability();
+    }
+
+    private applyAvailability(eventId: number, deltas: SpaceAvailabilityDelta[], reloaded: boolean = false) {
+        if (this.pendingAvailability) {
+            this.pendingAvailability.push(...deltas);
+            return;
+        }
+        if (!this.currentEvent || this.currentEvent.id !== eventId) {
+            if (reloaded && this.currentPage === 'home') this.render();
+            return;
+        }
+
+        let changed = false;
+        for (const delta of deltas) {
+            // Versions only grow; an older delta arriving late would undo a newer one
+            if (delta.version < this.lastAvailabilityVersion) continue;
+            this.lastAvailabilityVersion = delta.version;
+
+            const space = this.currentEvent.spaces.find(s => s.id === delta.spaceId);
+            if (!space || space.available === delta.available) continue;
+            space.available = delta.available;
+            space.bookedBy = null; // Not sent; only the booker's own view needs it, and that reloads the event
+            this.currentEvent.availableSpacesCount += delta.available ? 1 : -1;
+            changed = true;
+        }
+
+        if ((changed || reloaded) && this.currentPage === 'home') {
+            this.render();
+        }
+    }
+
     private render() {
         const app = document.getElementById('app');
         if (!app) return;
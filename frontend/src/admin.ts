@@ -24,6 +24,9 @@ let originalUserValues: {
     adminComments: string | null;
 } | null = null;
 let allUsersData: any[] = []; // Store all users for filtering
+let usersPageParams = new URLSearchParams(); // Filters of the loaded listing
+let usersNextCursor: string | undefined; // Absent once the last page is loaded
+let usersTotalCount: number | undefined;
 
 // Check if user is already logged in and token is valid
 const token = localStorage.getItem('token');
@@ -502,6 +505,33 @@ document.getElementById('review-modal')?.addEventListener('click', (e) => {
     }
 });
 
+// The user listing is paginated; pages are fetched one at a time as the admin asks for more
+async function fetchUserPage(headers: any, params: URLSearchParams, cursor?: string): Promise<{ users: any[]; nextCursor?: string; totalCount?: number }> {
+    const pageParams = new URLSearchParams(params);
+    if (cursor) {
+        pageParams.set('cursor', cursor);
+    }
+    const response = await axios.get(`${API_BASE_URL}/admin/users`, {
+        headers,
+        params: pageParams,
+    });
+    const totalCount = response.headers['x-total-count'];
+    return {
+        users: response.data,
+        nextCursor: response.headers['x-next-cursor'],
+        totalCount: totalCount !== undefined ? Number(totalCount) : undefined,
+    };
+}
+
+// Best matches for a name or email, ranked by the server
+async function searchUserMatches(headers: any, query: string, size: number): Promise<any[]> {
+    const response = await axios.get(`${API_BASE_URL}/admin/users/search`, {
+        headers,
+        params: { q: query, size },
+    });
+    return response.data;
+}
+
 // Load all users
 async function loadAllUsers(statusFilter?: string, hasActiveBooking?: boolean) {
     const container = document.getElementById('users-list-container');
@@ -519,27 +549,28 @@ async function loadAllUsers(statusFilter?: string, hasActiveBooking?: boolean) {
             params.append('hasActiveBooking', 'true');
         }
         
-        const url = params.toString() 
-            ? `${API_BASE_URL}/admin/users?${params.toString()}`
-            : `${API_BASE_URL}/admin/users`;
-        
         const token = localStorage.getItem('token');
         const headers: any = {};
         if (token) {
             headers['Authorization'] = `Bearer ${token}`;
         }
         
-        const response = await axios.get(url, { headers });
+        const page = await fetchUserPage(headers, params);
         
-        const users = response.data;
-        
-        // Store users data for filtering
-        allUsersData = users;
+        // Store users data for filtering; further pages are appended by "Load more"
+        allUsersData = page.users;
+        usersPageParams = params;
+        usersNextCursor = page.nextCursor;
+        usersTotalCount = page.totalCount;
         
         // Apply search filter if there's search text
         const searchInput = document.getElementById('user-search-input') as HTMLInputElement;
         const searchText = searchInput?.value || '';
-        filterUsersBySearch(searchText);
+        if (searchText.trim() !== '') {
+            await searchUsers(searchText);
+        } else {
+            filterUsersBySearch('');
+        }
     } catch (error: any) {
         console.error('Error loading users:', error);
         console.error('Error response:', error.response);
@@ -588,7 +619,12 @@ function renderUsers(users: any[]) {
             </tbody>
         </table>
     `;
-    const usersList = container.querySelector('.users-list')!;
+    appendUserRows(users);
+}
+
+function appendUserRows(users: any[]) {
+    const usersList = document.querySelector('#users-list-container .users-list');
+    if (!usersList) return;
     
     users.forEach((user: any) => {
             const timestamp = new Date().getTime();
@@ -770,6 +806,7 @@ function filterUsersBySearch(searchText: string) {
             ? allUsersData.filter((user: any) => user.status === currentStatus.toUpperCase())
             : allUsersData;
         renderUsers(filtered);
+        renderLoadMoreUsers();
         return;
     }
     
@@ -826,12 +863,96 @@ function filterUsersBySearch(searchText: string) {
     renderUsers(filtered);
 }
 
+// Shown under the listing while the server has more pages
+function renderLoadMoreUsers() {
+    const container = document.getElementById('users-list-container');
+    document.getElementById('load-more-users-btn')?.remove();
+    if (!container || !usersNextCursor || allUsersData.length === 0) return;
+    
+    const button = document.createElement('button');
+    button.id = 'load-more-users-btn';
+    button.className = 'btn';
+    button.style.cssText = 'display: block; margin: 16px auto 0;';
+    button.textContent = usersTotalCount !== undefined
+        ? `Load more (${allUsersData.length} of ${usersTotalCount})`
+        : 'Load more';
+    button.addEventListener('click', loadMoreUsers);
+    container.appendChild(button);
+}
+
+async function loadMoreUsers() {
+    const button = document.getElementById('load-more-users-btn') as HTMLButtonElement | null;
+    if (!usersNextCursor) return;
+    if (button) {
+        button.disabled = true;
+        button.textContent = 'Loading...';
+    }
+    
+    const token = localStorage.getItem('token');
+    const headers: any = {};
+    if (token) {
+        headers['Authorization'] = `Bearer ${token}`;
+    }
+    
+    try {
+        const page = await fetchUserPage(headers, usersPageParams, usersNextCursor);
+        allUsersData = allUsersData.concat(page.users);
+        usersNextCursor = page.nextCursor;
+        appendUserRows(page.users);
+        renderLoadMoreUsers();
+    } catch (error: any) {
+        const errorMessage = error.response?.data?.error || error.message || 'Unknown error';
+        showMessage(`Failed to load users: ${errorMessage}`, 'error');
+        if (button) {
+            button.disabled = false;
+            button.textContent = 'Load more';
+        }
+    }
+}
+
+// Searches members on the server, so the full member list never has to be loaded for it
+async function searchUsers(searchText: string) {
+    const container = document.getElementById('users-list-container');
+    if (!container) return;
+    
+    const activeFilter = document.querySelector('.filter-btn.active') as HTMLButtonElement;
+    const currentStatus = activeFilter?.getAttribute('data-status') || '';
+    
+    const token = localStorage.getItem('token');
+    const headers: any = {};
+    if (token) {
+        headers['Authorization'] = `Bearer ${token}`;
+    }
+    
+    try {
+        const params: any = { q: searchText, size: 50 };
+        if (currentStatus) {
+            params.status = currentStatus;
+        }
+        const response = await axios.get(`${API_BASE_URL}/admin/users/search`, { headers, params });
+        // Ignore results of a query the admin has typed past in the meantime
+        const currentInput = document.getElementById('user-search-input') as HTMLInputElement;
+        if (currentInput && currentInput.value === searchText) {
+            renderUsers(response.data);
+        }
+    } catch (error: any) {
+        const errorMessage = error.response?.data?.error || error.message || 'Unknown error';
+        container.innerHTML = `<p style="color: #f44336;">Failed to search users: ${errorMessage}</p>`;
+    }
+}
+
 // Search input handler
+let searchTimer: number | undefined;
 const searchInput = document.getElementById('user-search-input');
 if (searchInput) {
     searchInput.addEventListener('input', (e) => {
         const searchText = (e.target as HTMLInputElement).value;
-        filterUsersBySearch(searchText);
+        window.clearTimeout(searchTimer);
+        if (searchText.trim() === '') {
+            filterUsersBySearch('');
+            return;
+        }
+        searchTimer = window.setTimeout(() => searchUsers(searchText), 250);
     });
 }
 
@@ -868,6 +989,29 @@ if (activeBookingCheckbox) {
     });
 }
 
+// /events/all is paginated: one page per request, the next one via the X-Next-Cursor header
+async function fetchEventPage(headers: any, params: any = {}): Promise<{ events: any[]; nextCursor?: string }> {
+    const response = await axios.get(`${API_BASE_URL}/events/all`, {
+        headers,
+        params,
+    });
+    return { events: response.data, nextCursor: response.headers['x-next-cursor'] };
+}
+
+// One event with its spaces, found through the listing's time filter (from inclusive, to exclusive)
+async function fetchEvent(headers: any, event: any): Promise<any | undefined> {
+    const start = new Date(event.dateTime + 'Z'); // The server's local date-time, kept as is
+    const end = new Date(start.getTime() + 1000);
+    const { events } = await fetchEventPage(headers, {
+        city: event.city,
+        from: event.dateTime,
+        to: end.toISOString().slice(0, 19),
+    });
+    return events.find((e: any) => e.id === event.id);
+}
+
+let eventsNextCursor: string | undefined; // Absent once the last page is loaded
+
 // Load all events
 async function loadAllEvents() {
     const container = document.getElementById('events-list-container');
@@ -882,18 +1026,77 @@ async function loadAllEvents() {
             headers['Authorization'] = `Bearer ${token}`;
         }
         
-        const response = await axios.get(`${API_BASE_URL}/events/all`, { headers });
-        const events = response.data;
+        const page = await fetchEventPage(headers);
+        eventsNextCursor = page.nextCursor;
         
-        if (events.length === 0) {
+        if (page.events.length === 0) {
             container.innerHTML = '<p>No events found.</p>';
             return;
         }
         
         container.innerHTML = '<div class="events-list"></div>';
-        const eventsList = container.querySelector('.events-list')!;
-        
-        events.forEach((event: any) => {
+        appendEventCards(page.events);
+        renderLoadMoreEvents();
+    } catch (error: any) {
+        console.error('Error loading events:', error);
+        const errorMessage = error.response?.data?.error || 
+                            error.response?.data?.message || 
+                            error.message || 
+                            'Unknown error';
+        container.innerHTML = `<p style="color: #f44336;">Failed to load events: ${errorMessage}</p>`;
+        showMessage(`Failed to load events: ${errorMessage}`, 'error');
+    }
+}
+
+// Shown under the event list while the server has more pages
+function renderLoadMoreEvents() {
+    const container = document.getElementById('events-list-container');
+    document.getElementById('load-more-events-btn')?.remove();
+    if (!container || !eventsNextCursor) return;
+    
+    const button = document.createElement('button');
+    button.id = 'load-more-events-btn';
+    button.className = 'btn';
+    button.style.cssText = 'display: block; margin: 16px auto 0;';
+    button.textContent = 'Load more';
+    button.addEventListener('click', loadMoreEvents);
+    container.appendChild(button);
+}
+
+async function loadMoreEvents() {
+    const button = document.getElementById('load-more-events-btn') as HTMLButtonElement | null;
+    if (!eventsNextCursor) return;
+    if (button) {
+        button.disabled = true;
+        button.textContent = 'Loading...';
+    }
+    
+    const token = localStorage.getItem('token');
+    const headers: any = {};
+    if (token) {
+        headers['Authorization'] = `Bearer ${token}`;
+    }
+    
+    try {
+        const page = await fetchEventPage(headers, { cursor: eventsNextCursor });
+        eventsNextCursor = page.nextCursor;
+        appendEventCards(page.events);
+        renderLoadMoreEvents();
+    } catch (error: any) {
+        const errorMessage = error.response?.data?.error || error.message || 'Unknown error';
+        showMessage(`Failed to load events: ${errorMessage}`, 'error');
+        if (button) {
+            button.disabled = false;
+            button.textContent = 'Load more';
+        }
+    }
+}
+
+function appendEventCards(events: any[]) {
+    const eventsList = document.querySelector('#events-list-container .events-list');
+    if (!eventsList) return;
+    
+    events.forEach((event: any) => {
             const eventDate = new Date(event.dateTime);
             const isPast = eventDate < new Date();
             const isUpcoming = !isPast;
@@ -957,15 +1160,6 @@ async function loadAllEvents() {
                 });
             }
         });
-    } catch (error: any) {
-        console.error('Error loading events:', error);
-        const errorMessage = error.response?.data?.error || 
-                            error.response?.data?.message || 
-                            error.message || 
-                            'Unknown error';
-        container.innerHTML = `<p style="color: #f44336;">Failed to load events: ${errorMessage}</p>`;
-        showMessage(`Failed to load events: ${errorMessage}`, 'error');
-    }
 }
 
 // Cancel event
@@ -1020,9 +1214,7 @@ async function openEventBookingsModal(event: any) {
             headers['Authorization'] = `Bearer ${token}`;
         }
         
-        const response = await axios.get(`${API_BASE_URL}/events/all`, { headers });
-        const events = response.data;
-        const fullEvent = events.find((e: any) => e.id === event.id);
+        const fullEvent = await fetchEvent(headers, event);
         
         if (!fullEvent || !fullEvent.spaces) {
             content.innerHTML = '<p>No booking information available.</p>';
@@ -1033,12 +1225,15 @@ async function openEventBookingsModal(event: any) {
         const bookedSpaces = fullEvent.spaces.filter((space: any) => space.bookedBy);
         const availableSpaces = fullEvent.spaces.filter((space: any) => !space.bookedBy);
         
-        // Fetch all users to get names
-        const usersResponse = await axios.get(`${API_BASE_URL}/admin/users`, { headers });
-        const allUsers = usersResponse.data;
+        // Look up the names of the booked members only, by their email
+        const bookedEmails: string[] = Array.from(new Set<string>(bookedSpaces.map((space: any) => space.bookedBy)));
+        const matches = await Promise.all(bookedEmails.map(email => searchUserMatches(headers, email, 5)));
         const userMap = new Map<string, any>();
-        allUsers.forEach((user: any) => {
-            userMap.set(user.email, user);
+        matches.forEach((users, i) => {
+            const user = users.find((candidate: any) => candidate.email === bookedEmails[i]);
+            if (user) {
+                userMap.set(bookedEmails[i], user);
+            }
         });
         
         // Build HTML
@@ -1202,60 +1397,72 @@ async function openEventBookingsModal(event: any) {
             if (!searchInput || !dropdown) return;
             
             // Filter users as admin types
+            let lookupTimer: number | undefined;
             searchInput.addEventListener('input', () => {
                 const searchText = searchInput.value.trim().toLowerCase();
                 const selectedEmail = searchInput.getAttribute('data-selected-email') || '';
                 
                 if (searchText.length === 0) {
+                    window.clearTimeout(lookupTimer);
                     dropdown.style.display = 'none';
                     searchInput.setAttribute('data-selected-email', '');
                     return;
                 }
                 
-                // Filter users by name or email
-                const filteredUsers = allUsers.filter((user: any) => {
-                    const fullName = `${user.firstName || ''} ${user.lastName || ''}`.toLowerCase();
-                    const email = (user.email || '').toLowerCase();
-                    return fullName.includes(searchText) || email.includes(searchText);
-                }).slice(0, 10); // Limit to 10 results
-                
-                if (filteredUsers.length === 0) {
-                    dropdown.innerHTML = '<div style="padding: 12px; color: #666; font-size: 0.9rem;">No users found</div>';
-                    dropdown.style.display = 'block';
-                    return;
-                }
+                // Search users by name or email on the server, once typing pauses
+                window.clearTimeout(lookupTimer);
+                lookupTimer = window.setTimeout(async () => {
+                    let filteredUsers: any[];
+                    try {
+                        filteredUsers = await searchUserMatches(headers, searchText, 10); // Limit to 10 results
+                    } catch (error: any) {
+                        dropdown.innerHTML = '<div style="padding: 12px; color: #f44336; font-size: 0.9rem;">Failed to search users</div>';
+                        dropdown.style.display = 'block';
+                        return;
+                    }
+                    // Ignore results of a query the admin has typed past in the meantime
+                    if (searchInput.value.trim().toLowerCase() !== searchText) {
+                        return;
+                    }
+                    
+                    if (filteredUsers.length === 0) {
+                        dropdown.innerHTML = '<div style="padding: 12px; color: #666; font-size: 0.9rem;">No users found</div>';
+                        dropdown.style.display = 'block';
+                        return;
+                    }
                 
-                // Build dropdown HTML
-                let dropdownHTML = '';
-                filteredUsers.forEach((user: any) => {
-                    const userName = `${user.firstName || ''} ${user.lastName || ''}`.trim() || user.email;
-                    const isSelected = user.email === selectedEmail;
-                    dropdownHTML += `
-                        <div class="user-search-option" 
-                             data-email="${user.email}"
-                             data-name="${userName}"
-                             style="padding: 10px; cursor: pointer; border-bottom: 1px solid #f0f0f0; ${isSelected ? 'background: #f0f8ff;' : ''}"
-                             onmouseover="this.style.background='#f5f5f5'"
-                             onmouseout="this.style.background='${isSelected ? '#f0f8ff' : 'white'}'">
-                            <div style="font-weight: 600; color: #333; font-size: 0.9rem; margin-bottom: 2px;">${userName}</div>
-                            <div style="color: #666; font-size: 0.85rem;">${user.email}</div>
-                        </div>
-                    `;
-                });
+                    // Build dropdown HTML
+                    let dropdownHTML = '';
+                    filteredUsers.forEach((user: any) => {
+                        const userName = `${user.firstName || ''} ${user.lastName || ''}`.trim() || user.email;
+                        const isSelected = user.email === selectedEmail;
+                        dropdownHTML += `
+                            <div class="user-search-option" 
+                                 data-email="${user.email}"
+                                 data-name="${userName}"
+                                 style="padding: 10px; cursor: pointer; border-bottom: 1px solid #f0f0f0; ${isSelected ? 'background: #f0f8ff;' : ''}"
+                                 onmouseover="this.style.background='#f5f5f5'"
+                                 onmouseout="this.style.background='${isSelected ? '#f0f8ff' : 'white'}'">
+                                <div style="font-weight: 600; color: #333; font-size: 0.9rem; margin-bottom: 2px;">${userName}</div>
+                                <div style="color: #666; font-size: 0.85rem;">${user.email}</div>
+                            </div>
+                        `;
+                    });
                 
-                dropdown.innerHTML = dropdownHTML;
-                dropdown.style.display = 'block';
+                    dropdown.innerHTML = dropdownHTML;
+                    dropdown.style.display = 'block';
                 
-                // Add click handlers to options
-                dropdown.querySelectorAll('.user-search-option').forEach(option => {
-                    option.addEventListener('click', () => {
-                        const email = option.getAttribute('data-email') || '';
-                        const name = option.getAttribute('data-name') || '';
-                        searchInput.value = name;
-                        searchInput.setAttribute('data-selected-email', email);
-                        dropdown.style.display = 'none';
+                    // Add click handlers to options
+                    dropdown.querySelectorAll('.user-search-option').forEach(option => {
+                        option.addEventListener('click', () => {
+                            const email = option.getAttribute('data-email') || '';
+                            const name = option.getAttribute('data-name') || '';
+                            searchInput.value = name;
+                            searchInput.setAttribute('data-selected-email', email);
+                            dropdown.style.display = 'none';
+                        });
                     });
-                });
+                }, 250);
             });
             
             // Close dropdown when clicking outside
@@ -130,6 +130,12 @@ export interface SpaceDTO {
     bookedBy: string | null;
 }
 
+export interface SpaceAvailabilityDelta {
+    spaceId: number;
+    available: boolean;
+    version: number;
+}
+
 export interface RegistrationRequest {
     email: string;
     password: string;
@@ -186,6 +192,17 @@ export const eventApi = {
         const response = await api.put<EventDTO>(`/events/${eventId}/cancel`);
         return response.data;
     },
+    // Live availability changes of an event's spaces (Server-Sent Events); the browser
+    // reconnects on its own if the connection drops. onOpen runs on every (re)connect, since
+    // changes made while disconnected are not replayed. Call close() on the result to stop
+    streamAvailability: (eventId: number, onDeltas: (deltas: SpaceAvailabilityDelta[]) => void, onOpen: () => void): EventSource => {
+        const source = new EventSource(`${API_BASE_URL}/events/${eventId}/availability/stream`);
+        source.onopen = onOpen;
+        source.addEventListener('availability', (event) => {
+            onDeltas(JSON.parse((event as MessageEvent).data));
+        });
+        return source;
+    },
 };
 
 export const registrationApi = {
@@ -6,7 +6,9 @@ export default defineConfig({
     proxy: {
       '/api': {
         target: 'http://localhost:8080',
-        changeOrigin: true
+        changeOrigin: true,
+        // Passes the browser's address on, so per-IP limits see clients rather than the proxy
+        xfwd: true
       }
     }
   }
@@ -1,6 +1,8 @@
 package com.example.velvetden.config;
 
+import com.example.velvetden.security.BoundedPasswordEncoder;
 import com.example.velvetden.security.JwtAuthenticationFilter;
+import com.example.velvetden.security.RehashingAuthenticationProvider;
 import com.example.velvetden.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,8 +14,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -29,20 +29,19 @@ public class SecurityConfig {
     
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final BoundedPasswordEncoder passwordEncoder;
     
     @Value("${cors.allowed-origins:http://localhost:3000,http://localhost:5173}")
     private String allowedOrigins;
     
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-    
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new RehashingAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        // Hashing runs on the encoder's own bounded pool; outdated hashes are rehashed on login
+        // when the pool has room, and skipped otherwise
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
     
@@ -57,6 +56,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "X-Total-Count", "ETag", "Retry-After"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
@@ -73,8 +73,13 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(org.springframework.http.HttpMethod.PUT, "/api/events/*/cancel").authenticated() // Cancel event requires authentication
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/events/export").authenticated() // History export requires authentication - MUST come before general /api/events/** rule
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/admin/users/spaces/book").authenticated() // Book space for user requires authentication - MUST come before general /api/admin/** rule
                 .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/admin/users/spaces/*/booking").authenticated() // Cancel booking by admin requires authentication
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/admin/users/export").authenticated() // Member export requires authentication - MUST come before general /api/admin/** rule
+                .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/admin/users/import").authenticated() // Member import requires authentication - MUST come before general /api/admin/** rule
+                .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/admin/users/moderation").authenticated() // Bulk moderation requires authentication - MUST come before general /api/admin/** rule
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/admin/stats").authenticated() // Runtime counters require authentication - MUST come before general /api/admin/** rule
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/admin/users").authenticated() // Create user requires authentication - MUST come before general /api/admin/** rule
                 .requestMatchers("/api/events/**", "/api/registration/**", "/api/auth/**").permitAll()
                 .requestMatchers("/api/admin/**").permitAll() // Admin endpoints are public (admin page handles auth) - must come AFTER specific authenticated rules
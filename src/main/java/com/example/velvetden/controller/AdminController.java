@@ -1,26 +1,43 @@
 package com.example.velvetden.controller;
 
+import com.example.velvetden.dto.MemberImportResultDTO;
+import com.example.velvetden.dto.ModerationActionDTO;
+import com.example.velvetden.dto.ModerationResultDTO;
 import com.example.velvetden.dto.UserDetailsDTO;
+import com.example.velvetden.dto.UserPageDTO;
 import com.example.velvetden.entity.User;
 import com.example.velvetden.entity.Space;
-import com.example.velvetden.entity.Event;
 import com.example.velvetden.repository.SpaceRepository;
+import com.example.velvetden.repository.UserModerationRepository;
 import com.example.velvetden.repository.UserRepository;
+import com.example.velvetden.security.AuthenticatedUser;
+import com.example.velvetden.security.PasswordHashingBusyException;
 import com.example.velvetden.service.FileStorageService;
+import com.example.velvetden.service.MemberExportService;
+import com.example.velvetden.service.MemberImportService;
+import com.example.velvetden.service.ModerationService;
+import com.example.velvetden.service.PrincipalCache;
 import com.example.velvetden.service.SpaceService;
 import com.example.velvetden.service.UserService;
+import com.example.velvetden.web.AcceptEncoding;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/admin/users")
@@ -28,26 +45,30 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    
     private final UserRepository userRepository;
     private final SpaceRepository spaceRepository;
     private final UserService userService;
     private final FileStorageService fileStorageService;
     private final SpaceService spaceService;
+    private final MemberExportService memberExportService;
+    private final ModerationService moderationService;
+    private final MemberImportService memberImportService;
+    private final PrincipalCache principalCache;
     
     @PostMapping("/{userId}/approve")
     public ResponseEntity<Map<String, Object>> approveUser(@PathVariable("userId") Long userId) {
         try {
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            user.setStatus(User.UserStatus.APPROVED);
-            userRepository.save(user);
+            // Emails the member if their status changed
+            UserModerationRepository.Moderated user = moderationService.moderate(userId, "approve");
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "User approved successfully");
-            response.put("userId", user.getId());
-            response.put("email", user.getEmail());
-            response.put("status", user.getStatus().name());
+            response.put("userId", user.id());
+            response.put("email", user.email());
+            response.put("status", user.status().name());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -60,17 +81,14 @@ public class AdminController {
     @PostMapping("/{userId}/reject")
     public ResponseEntity<Map<String, Object>> rejectUser(@PathVariable("userId") Long userId) {
         try {
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            user.setStatus(User.UserStatus.REJECTED);
-            userRepository.save(user);
+            // Emails the member if their status changed
+            UserModerationRepository.Moderated user = moderationService.moderate(userId, "reject");
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "User rejected successfully");
-            response.put("userId", user.getId());
-            response.put("email", user.getEmail());
-            response.put("status", user.getStatus().name());
+            response.put("userId", user.id());
+            response.put("email", user.email());
+            response.put("status", user.status().name());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -83,17 +101,14 @@ public class AdminController {
     @PostMapping("/{userId}/request-picture")
     public ResponseEntity<Map<String, Object>> requestPicture(@PathVariable("userId") Long userId) {
         try {
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            user.setStatus(User.UserStatus.PICTURE_REQUESTED);
-            userRepository.save(user);
+            // Emails the member if their status changed
+            UserModerationRepository.Moderated user = moderationService.moderate(userId, "request-picture");
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Picture request sent to user successfully");
-            response.put("userId", user.getId());
-            response.put("email", user.getEmail());
-            response.put("status", user.getStatus().name());
+            response.put("userId", user.id());
+            response.put("email", user.email());
+            response.put("status", user.status().name());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -103,87 +118,194 @@ public class AdminController {
         }
     }
     
+    /**
+     * Applies a list of approve / reject / request-picture decisions in one transaction and
+     * reports the outcome per user. Invalid entries are reported without failing the rest.
+     */
+    @PostMapping("/moderation")
+    public ResponseEntity<?> moderateUsers(@RequestBody List<ModerationActionDTO> actions, Authentication authentication) {
+        try {
+            // Check if user is authenticated and is an admin
+            if (authentication == null || authentication.getPrincipal() == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Authentication required");
+                return ResponseEntity.status(403).body(error);
+            }
+            
+            AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
+            if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Admin access required");
+                return ResponseEntity.status(403).body(error);
+            }
+            
+            List<ModerationResultDTO> results = moderationService.moderate(actions);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Members, one page at a time. The body stays a plain list; the cursor for the next page is
+     * sent in the X-Next-Cursor header (absent on the last page), and the first page also carries
+     * the number of matching members in X-Total-Count.
+     */
     @GetMapping
     public ResponseEntity<?> getAllUsers(
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String hasActiveBooking) {
+            @RequestParam(required = false) String hasActiveBooking,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<User> users = userRepository.findAll();
-            
-            // Filter by active booking first (users with bookings in upcoming events)
             // Parse hasActiveBooking as boolean (handles "true", "false", or null)
             boolean filterByActiveBooking = "true".equalsIgnoreCase(hasActiveBooking);
             
-            if (filterByActiveBooking) {
-                LocalDateTime now = LocalDateTime.now();
-                users = users.stream()
-                    .filter(user -> {
-                        // Get all spaces booked by this user
-                        List<Space> userSpaces = spaceRepository.findByUserId(user.getId());
-                        
-                        // If user has no bookings at all, exclude them
-                        if (userSpaces == null || userSpaces.isEmpty()) {
-                            return false;
-                        }
-                        
-                        // Check if any space is booked by this user in an upcoming, non-cancelled event
-                        return userSpaces.stream()
-                            .anyMatch(space -> {
-                                // Double-check that the space is actually booked by this user
-                                if (space.getUser() == null) {
-                                    return false;
-                                }
-                                if (!space.getUser().getId().equals(user.getId())) {
-                                    return false;
-                                }
-                                
-                                // Check if the event is upcoming and not cancelled
-                                Event event = space.getEvent();
-                                if (event == null) {
-                                    return false;
-                                }
-                                
-                                return event.getDateTime().isAfter(now) && !event.isCancelled();
-                            });
-                    })
-                    .collect(Collectors.toList());
+            UserPageDTO page = userService.getUsersPage(cursor, size, status, filterByActiveBooking, sort);
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            if (page.getTotalCount() != null) {
+                response.header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalCount()));
+            }
+            return response.body(page.getUsers());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Failed to load users: " + e.getMessage());
+            return ResponseEntity.status(500).body(error);
+        }
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<?> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        // Check if user is authenticated and is an admin
+        if (authentication == null || authentication.getPrincipal() == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Authentication required");
+            return ResponseEntity.status(403).body(error);
+        }
+        
+        AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
+        if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Admin access required");
+            return ResponseEntity.status(403).body(error);
+        }
+        
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Unsupported export format: " + format);
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        // Compressed while it is written, so neither the plain nor the gzipped export is ever held in memory
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                write(csv, out);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+            write(csv, compressed);
+            compressed.finish();
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"members." + (csv ? "csv" : "ndjson") + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
+    private void write(boolean csv, OutputStream out) {
+        if (csv) {
+            memberExportService.writeCsv(out);
+        } else {
+            memberExportService.writeNdjson(out);
+        }
+    }
+    
+    /**
+     * Imports members from a CSV (with header) or NDJSON request body, with the same columns as
+     * the export plus password. Returns how many were imported and why the others were not.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body,
+            Authentication authentication) {
+        try {
+            // Check if user is authenticated and is an admin
+            if (authentication == null || authentication.getPrincipal() == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Authentication required");
+                return ResponseEntity.status(403).body(error);
             }
             
-            // Then filter by status if provided
-            if (status != null && !status.isEmpty()) {
-                try {
-                    User.UserStatus userStatus = User.UserStatus.valueOf(status.toUpperCase());
-                    users = users.stream()
-                        .filter(user -> user.getStatus() == userStatus)
-                        .collect(Collectors.toList());
-                } catch (IllegalArgumentException e) {
-                    // Invalid status, keep current filtered list
-                }
+            AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
+            if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Admin access required");
+                return ResponseEntity.status(403).body(error);
             }
             
-            List<UserDetailsDTO> userDTOs = users.stream().map(user -> {
-                UserDetailsDTO dto = new UserDetailsDTO();
-                dto.setId(user.getId());
-                dto.setEmail(user.getEmail());
-                dto.setFirstName(user.getFirstName());
-                dto.setLastName(user.getLastName());
-                dto.setStatus(user.getStatus().name());
-                dto.setApproved(user.isApproved());
-                dto.setCreatedAt(user.getCreatedAt());
-                dto.setVerificationImagePath(user.getVerificationImagePath());
-                dto.setBookedSpacesCount(spaceRepository.findByUserId(user.getId()).size());
-                dto.setAge(user.getAge());
-                dto.setLocation(user.getLocation());
-                dto.setHeight(user.getHeight());
-                dto.setSize(user.getSize());
-                dto.setAdminComments(user.getAdminComments());
-                return dto;
-            }).collect(Collectors.toList());
-            
-            return ResponseEntity.ok(userDTOs);
+            boolean csv = "csv".equalsIgnoreCase(format);
+            if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Unsupported import format: " + format);
+                return ResponseEntity.badRequest().body(error);
+            }
+            
+            MemberImportResultDTO result = memberImportService.importMembers(body, csv);
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
-            error.put("error", "Failed to load users: " + e.getMessage());
+            error.put("error", "Failed to import users: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Ranked search over members' email, name, location and admin comments, paginated like the
+     * listing through the X-Next-Cursor header.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            UserPageDTO page = userService.searchUsers(query, cursor, size, status);
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getUsers());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Failed to search users: " + e.getMessage());
             return ResponseEntity.status(500).body(error);
         }
     }
@@ -198,7 +320,7 @@ public class AdminController {
                 return ResponseEntity.status(403).body(error);
             }
             
-            User admin = (User) authentication.getPrincipal();
+            AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
             if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Admin access required");
@@ -241,6 +363,7 @@ public class AdminController {
             }
             
             userRepository.save(user);
+            principalCache.invalidate(user.getId());
             
             // Return updated user DTO
             UserDetailsDTO dto = new UserDetailsDTO();
@@ -252,7 +375,7 @@ public class AdminController {
             dto.setApproved(user.isApproved());
             dto.setCreatedAt(user.getCreatedAt());
             dto.setVerificationImagePath(user.getVerificationImagePath());
-            dto.setBookedSpacesCount(spaceRepository.findByUserId(user.getId()).size());
+            dto.setBookedSpacesCount((int) spaceRepository.countByUserId(user.getId()));
             dto.setAge(user.getAge());
             dto.setLocation(user.getLocation());
             dto.setHeight(user.getHeight());
@@ -290,7 +413,7 @@ public class AdminController {
                 return ResponseEntity.status(403).body(error);
             }
             
-            User admin = (User) authentication.getPrincipal();
+            AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
             if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Admin access required");
@@ -370,6 +493,10 @@ public class AdminController {
             
             error.put("error", errorMessage);
             return ResponseEntity.badRequest().body(error);
+        } catch (PasswordHashingBusyException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
         } catch (RuntimeException e) {
             Map<String, Object> error = new HashMap<>();
             String errorMessage = e.getMessage();
@@ -404,7 +531,7 @@ public class AdminController {
                 return ResponseEntity.status(403).body(error);
             }
             
-            User admin = (User) authentication.getPrincipal();
+            AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
             if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Admin access required");
@@ -445,7 +572,7 @@ public class AdminController {
                 return ResponseEntity.status(403).body(error);
             }
             
-            User admin = (User) authentication.getPrincipal();
+            AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
             if (admin.getIsAdmin() == null || !admin.getIsAdmin()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Admin access required");
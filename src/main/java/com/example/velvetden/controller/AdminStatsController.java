@@ -0,0 +1,97 @@
+package com.example.velvetden.controller;
+
+import com.example.velvetden.security.AuthRateLimits;
+import com.example.velvetden.security.AuthenticatedUser;
+import com.example.velvetden.security.BoundedPasswordEncoder;
+import com.example.velvetden.security.TokenBucketLimiter;
+import com.example.velvetden.service.JwtTokenValidator;
+import com.example.velvetden.service.PrincipalCache;
+import com.example.velvetden.service.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters of the in-process caches, limiters and pools, the same ones that are logged every
+ * minute, for looking at a running instance.
+ */
+@RestController
+@RequestMapping("/api/admin/stats")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+@RequiredArgsConstructor
+public class AdminStatsController {
+
+    private final JwtTokenValidator jwtTokenValidator;
+    private final PrincipalCache principalCache;
+    private final SingleFlight singleFlight;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final AuthRateLimits authRateLimits;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats(Authentication authentication) {
+        // Check if user is authenticated and is an admin
+        if (authentication == null || authentication.getPrincipal() == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Authentication required");
+            return ResponseEntity.status(403).body(error);
+        }
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (user.getIsAdmin() == null || !user.getIsAdmin()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Admin access required");
+            return ResponseEntity.status(403).body(error);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+
+        JwtTokenValidator.Stats tokens = jwtTokenValidator.getStats();
+        Map<String, Object> verifiedTokens = new LinkedHashMap<>();
+        verifiedTokens.put("hits", tokens.getHits().get());
+        verifiedTokens.put("misses", tokens.getMisses().get());
+        verifiedTokens.put("evicted", tokens.getEvicted().get());
+        verifiedTokens.put("cached", jwtTokenValidator.getCachedTokenCount());
+        stats.put("verifiedTokens", verifiedTokens);
+
+        PrincipalCache.Stats principals = principalCache.getStats();
+        Map<String, Object> principalStats = new LinkedHashMap<>();
+        principalStats.put("hits", principals.getHits().get());
+        principalStats.put("misses", principals.getMisses().get());
+        principalStats.put("invalidations", principals.getInvalidations().get());
+        stats.put("principals", principalStats);
+
+        Map<String, Object> singleFlightStats = new LinkedHashMap<>();
+        singleFlight.getStats().forEach((group, groupStats) -> {
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("loads", groupStats.getLoads().get());
+            counters.put("coalesced", groupStats.getCoalesced().get());
+            singleFlightStats.put(group, counters);
+        });
+        stats.put("singleFlight", singleFlightStats);
+
+        BoundedPasswordEncoder.Stats hashing = passwordEncoder.getStats();
+        Map<String, Object> hashingStats = new LinkedHashMap<>();
+        hashingStats.put("hashed", hashing.getHashed().get());
+        hashingStats.put("rejected", hashing.getRejected().get());
+        stats.put("passwordHashing", hashingStats);
+
+        Map<String, Object> rateLimits = new LinkedHashMap<>();
+        for (TokenBucketLimiter limiter : authRateLimits.getLimiters()) {
+            TokenBucketLimiter.Stats limiterStats = limiter.getStats();
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("allowed", limiterStats.getAllowed().get());
+            counters.put("rejected", limiterStats.getRejected().get());
+            counters.put("untracked", limiterStats.getUntracked().get());
+            counters.put("keysTracked", limiter.getTrackedKeyCount());
+            rateLimits.put(limiter.getName(), counters);
+        }
+        stats.put("rateLimits", rateLimits);
+
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -2,17 +2,20 @@ package com.example.velvetden.controller;
 
 import com.example.velvetden.dto.LoginRequestDTO;
 import com.example.velvetden.entity.User;
-import com.example.velvetden.service.CustomUserDetailsService;
+import com.example.velvetden.security.AuthenticatedUser;
+import com.example.velvetden.security.MemberUserDetails;
+import com.example.velvetden.security.PasswordHashingBusyException;
 import com.example.velvetden.service.JwtTokenGenerator;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -28,7 +31,6 @@ public class AuthController {
     
     private final AuthenticationManager authenticationManager;
     private final JwtTokenGenerator jwtTokenGenerator;
-    private final CustomUserDetailsService userDetailsService;
     
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequestDTO request) {
@@ -42,9 +44,12 @@ public class AuthController {
                 )
             );
             
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtTokenGenerator.generateToken(userDetails);
-            User user = userDetailsService.loadUserEntityByUsername(request.getEmail());
+            // The user loaded for authentication; no second lookup
+            MemberUserDetails userDetails = (MemberUserDetails) authentication.getPrincipal();
+            User user = userDetails.getMember();
+            AuthenticatedUser principal = new AuthenticatedUser(
+                user.getId(), user.getEmail(), user.getStatus(), user.getIsAdmin(), user.getTokenVersion());
+            String token = jwtTokenGenerator.generateToken(userDetails, principal);
             
             logger.info("Successful login for user: {}", request.getEmail());
             
@@ -56,6 +61,11 @@ public class AuthController {
             response.put("approved", user.isApproved());
             
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy, login rejected for email: {}", request.getEmail());
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
         } catch (BadCredentialsException e) {
             logger.warn("Bad credentials for email: {}", request.getEmail(), e);
             Map<String, Object> error = new HashMap<>();
@@ -2,15 +2,30 @@ package com.example.velvetden.controller;
 
 import com.example.velvetden.dto.CreateEventRequestDTO;
 import com.example.velvetden.dto.EventDTO;
-import com.example.velvetden.entity.User;
+import com.example.velvetden.dto.EventPageDTO;
+import com.example.velvetden.security.AuthenticatedUser;
+import com.example.velvetden.service.AvailabilityBroadcaster;
+import com.example.velvetden.service.EventExportService;
 import com.example.velvetden.service.EventService;
+import com.example.velvetden.service.ResponseVersions;
+import com.example.velvetden.service.SerializedResponseCache;
+import com.example.velvetden.service.UpcomingEventCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,18 +34,105 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class EventController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Bookings show who booked a space, so only the browser may keep a copy, and must revalidate it
+    private static final CacheControl EVENTS_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    
     private final EventService eventService;
+    private final UpcomingEventCache upcomingEventCache;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final EventExportService eventExportService;
+    private final ResponseVersions responseVersions;
+    private final SerializedResponseCache serializedResponses;
     
+    // Polled by every open page: answered from the cached snapshot, or with 304 if it hasn't changed
     @GetMapping("/upcoming")
-    public ResponseEntity<EventDTO> getUpcomingEvent() {
-        EventDTO event = eventService.getUpcomingEvent();
-        return ResponseEntity.ok(event);
+    public ResponseEntity<byte[]> getUpcomingEvent(WebRequest request) {
+        UpcomingEventCache.Snapshot snapshot = upcomingEventCache.getSnapshot();
+        if (snapshot.getEvent() == null) {
+            throw new RuntimeException("No upcoming event found");
+        }
+        
+        String eTag = responseVersions.upcomingETag(snapshot);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(EVENTS_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return serializedResponses.respond("events.upcoming", eTag, "current", request, () ->
+            ResponseEntity.ok().eTag(eTag).cacheControl(EVENTS_CACHE_CONTROL).body(snapshot.getEvent()));
+    }
+    
+    @GetMapping(value = "/{eventId}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable Long eventId) {
+        return availabilityBroadcaster.subscribe(eventId);
     }
     
+    /**
+     * Event history, newest first, one page at a time. The body stays a plain list; the cursor
+     * for the next page is sent in the X-Next-Cursor header, which is absent on the last page.
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<EventDTO>> getAllEvents() {
-        List<EventDTO> events = eventService.getAllEvents();
-        return ResponseEntity.ok(events);
+    public ResponseEntity<byte[]> getAllEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Boolean cancelled,
+            WebRequest request) {
+        String eTag = responseVersions.eventsETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(EVENTS_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        
+        String key = String.join("|", String.valueOf(cursor), String.valueOf(size), String.valueOf(city),
+            String.valueOf(from), String.valueOf(to), String.valueOf(cancelled));
+        return serializedResponses.respond("events.page", eTag, key, request, () -> {
+            EventPageDTO page = eventService.getEventsPage(eTag, cursor, size, city, from, to, cancelled);
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).cacheControl(EVENTS_CACHE_CONTROL);
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getEvents());
+        });
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<?> exportEvents(
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication) {
+        // Check if user is authenticated and is an admin
+        if (authentication == null || authentication.getPrincipal() == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Authentication required");
+            return ResponseEntity.status(403).body(error);
+        }
+        
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (user.getIsAdmin() == null || !user.getIsAdmin()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Admin access required");
+            return ResponseEntity.status(403).body(error);
+        }
+        
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Unsupported export format: " + format);
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        // Written on an async thread while rows are read, so the history is never held in memory
+        StreamingResponseBody body = csv
+            ? eventExportService::writeCsv
+            : eventExportService::writeNdjson;
+        
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"events." + (csv ? "csv" : "ndjson") + "\"")
+            .body(body);
     }
     
     @PostMapping
@@ -39,7 +141,9 @@ public class EventController {
             EventDTO event = eventService.createEvent(
                 request.getCity(),
                 request.getDateTime(),
-                request.getSpaceTemplateIds()
+                request.getSpaceTemplateIds(),
+                request.getBookingMode(),
+                request.getLotteryClosesAt()
             );
             
             return ResponseEntity.ok(event);
@@ -60,7 +164,7 @@ public class EventController {
                 return ResponseEntity.status(403).body(error);
             }
             
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             if (user.getIsAdmin() == null || !user.getIsAdmin()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Admin access required");
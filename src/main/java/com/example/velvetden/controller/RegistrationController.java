@@ -1,11 +1,15 @@
 package com.example.velvetden.controller;
 
 import com.example.velvetden.entity.User;
+import com.example.velvetden.security.AuthRateLimits;
+import com.example.velvetden.security.PasswordHashingBusyException;
 import com.example.velvetden.service.EmailService;
 import com.example.velvetden.service.FileStorageService;
 import com.example.velvetden.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -22,6 +26,7 @@ public class RegistrationController {
     private final UserService userService;
     private final FileStorageService fileStorageService;
     private final EmailService emailService;
+    private final AuthRateLimits authRateLimits;
     
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> register(
@@ -31,6 +36,16 @@ public class RegistrationController {
             @RequestParam("lastName") String lastName,
             @RequestParam("verificationImage") MultipartFile verificationImage) {
         
+        // Per-email limit; the IP limit is applied by AuthRateLimitFilter before the upload is parsed
+        long retryAfter = authRateLimits.acquireRegistrationByEmail(email);
+        if (retryAfter > 0) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Too many attempts. Please try again in a moment.");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(error);
+        }
+        
         try {
             // Store verification image
             String imagePath = fileStorageService.storeFile(verificationImage);
@@ -74,6 +89,10 @@ public class RegistrationController {
             
             error.put("error", errorMessage);
             return ResponseEntity.badRequest().body(error);
+        } catch (PasswordHashingBusyException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
         } catch (RuntimeException e) {
             // Handle runtime exceptions (like "Email already registered" from UserService)
             Map<String, Object> error = new HashMap<>();
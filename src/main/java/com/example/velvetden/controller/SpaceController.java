@@ -2,9 +2,13 @@ package com.example.velvetden.controller;
 
 import com.example.velvetden.dto.BookSpaceRequestDTO;
 import com.example.velvetden.entity.Space;
-import com.example.velvetden.entity.User;
+import com.example.velvetden.security.AuthenticatedUser;
+import com.example.velvetden.service.IdempotencyCache;
+import com.example.velvetden.service.LotteryService;
 import com.example.velvetden.service.SpaceService;
+import com.example.velvetden.service.WaitingRoom;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -19,16 +23,56 @@ import java.util.Map;
 public class SpaceController {
     
     private final SpaceService spaceService;
+    private final WaitingRoom waitingRoom;
+    private final LotteryService lotteryService;
+    private final IdempotencyCache idempotencyCache;
     
     @PostMapping("/events/{eventId}/book")
     public ResponseEntity<Map<String, String>> bookSpace(
             @PathVariable Long eventId,
             @RequestBody BookSpaceRequestDTO request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return book(eventId, request, user);
+        }
+        
+        // Retries with the same key and body get the original response replayed
+        String key = "book:" + user.getId() + ":" + eventId + ":" + idempotencyKey;
+        try {
+            return idempotencyCache.execute(key, String.valueOf(request.getSpaceId()), () -> book(eventId, request, user));
+        } catch (IdempotencyCache.KeyReusedException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(error);
+        }
+    }
+    
+    private ResponseEntity<Map<String, String>> book(Long eventId, BookSpaceRequestDTO request, AuthenticatedUser user) {
         try {
-            User user = (User) authentication.getPrincipal();
+            // Lottery events only collect intents until the draw
+            LotteryService.Phase lotteryPhase = lotteryService.phase(eventId);
+            if (lotteryPhase == LotteryService.Phase.COLLECTING) {
+                lotteryService.enter(eventId, request.getSpaceId(), user);
+                
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "You have been entered into the lottery for this event");
+                response.put("spaceId", request.getSpaceId().toString());
+                return ResponseEntity.accepted().body(response);
+            }
+            if (lotteryPhase == LotteryService.Phase.ALLOCATING) {
+                throw new RuntimeException("The lottery for this event is being drawn. Please check back shortly.");
+            }
+            
+            ResponseEntity<Map<String, String>> queued = queueUnlessAdmitted(eventId, user);
+            if (queued != null) {
+                return queued;
+            }
+            
             Space space = spaceService.bookSpace(eventId, request.getSpaceId(), user);
+            waitingRoom.leave(eventId, user.getId());
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Space booked successfully");
@@ -43,13 +87,108 @@ public class SpaceController {
         }
     }
     
+    @PostMapping("/events/{eventId}/hold")
+    public ResponseEntity<Map<String, String>> holdSpace(
+            @PathVariable Long eventId,
+            @RequestBody BookSpaceRequestDTO request,
+            Authentication authentication) {
+        
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            
+            if (lotteryService.phase(eventId) != LotteryService.Phase.NONE) {
+                throw new RuntimeException("Spaces of lottery events cannot be held");
+            }
+            
+            ResponseEntity<Map<String, String>> queued = queueUnlessAdmitted(eventId, user);
+            if (queued != null) {
+                return queued;
+            }
+            
+            Space space = spaceService.holdSpace(eventId, request.getSpaceId(), user);
+            waitingRoom.leave(eventId, user.getId());
+            
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Space held. Please confirm your booking before the hold expires.");
+            response.put("spaceId", space.getId().toString());
+            response.put("spaceName", space.getName());
+            response.put("holdExpiresAt", space.getHoldExpiresAt().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    @PostMapping("/{spaceId}/confirm")
+    public ResponseEntity<Map<String, String>> confirmHold(
+            @PathVariable Long spaceId,
+            Authentication authentication) {
+        
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            spaceService.confirmHold(spaceId, user);
+            
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Space booked successfully");
+            response.put("spaceId", spaceId.toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Only admitted users reach the booking service; the rest get their position to poll
+    private ResponseEntity<Map<String, String>> queueUnlessAdmitted(Long eventId, AuthenticatedUser user) {
+        WaitingRoom.Ticket ticket = waitingRoom.enter(eventId, user.getId());
+        if (ticket.isAdmitted()) {
+            return null;
+        }
+        
+        Map<String, String> queued = new HashMap<>();
+        queued.put("error", "Booking is busy. You are in the queue, please try again shortly.");
+        queued.put("position", String.valueOf(ticket.getPosition()));
+        queued.put("ahead", String.valueOf(ticket.getAhead()));
+        return ResponseEntity.status(429)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ticket.getRetryAfterSeconds()))
+            .body(queued);
+    }
+    
+    @GetMapping("/events/{eventId}/queue")
+    public ResponseEntity<Map<String, Object>> getQueuePosition(
+            @PathVariable Long eventId,
+            Authentication authentication) {
+        
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        WaitingRoom.Ticket ticket = waitingRoom.peek(eventId, user.getId());
+        
+        Map<String, Object> response = new HashMap<>();
+        if (ticket == null) {
+            // Not queued yet: the next booking attempt takes a position
+            response.put("queued", false);
+            return ResponseEntity.ok(response);
+        }
+        
+        response.put("queued", true);
+        response.put("position", ticket.getPosition());
+        response.put("ahead", ticket.getAhead());
+        response.put("admitted", ticket.isAdmitted());
+        response.put("retryAfterSeconds", ticket.getRetryAfterSeconds());
+        return ResponseEntity.ok(response);
+    }
+    
     @DeleteMapping("/{spaceId}/cancel")
     public ResponseEntity<Map<String, String>> cancelBooking(
             @PathVariable Long spaceId,
             Authentication authentication) {
         
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             spaceService.cancelBooking(spaceId, user);
             
             Map<String, String> response = new HashMap<>();
@@ -1,11 +1,18 @@
 package com.example.velvetden.controller;
 
 import com.example.velvetden.dto.SpaceTemplateDTO;
+import com.example.velvetden.service.ResponseVersions;
+import com.example.velvetden.service.SerializedResponseCache;
 import com.example.velvetden.service.SpaceTemplateService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -14,12 +21,25 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SpaceTemplateController {
     
+    // Templates only change with a deploy, so clients may reuse them for a while without asking
+    private static final CacheControl TEMPLATES_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(10));
+    
     private final SpaceTemplateService spaceTemplateService;
+    private final ResponseVersions responseVersions;
+    private final SerializedResponseCache serializedResponses;
     
     @GetMapping
-    public ResponseEntity<List<SpaceTemplateDTO>> getAllTemplates() {
-        List<SpaceTemplateDTO> templates = spaceTemplateService.getAllTemplates();
-        return ResponseEntity.ok(templates);
+    public ResponseEntity<byte[]> getAllTemplates(WebRequest request) {
+        String eTag = responseVersions.templatesETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(TEMPLATES_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        
+        return serializedResponses.respond("space-templates", eTag, "all", request, () -> {
+            List<SpaceTemplateDTO> templates = spaceTemplateService.getAllTemplates();
+            return ResponseEntity.ok().eTag(eTag).cacheControl(TEMPLATES_CACHE_CONTROL).body(templates);
+        });
     }
     
     @GetMapping("/{id}")
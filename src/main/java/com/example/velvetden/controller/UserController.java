@@ -4,8 +4,10 @@ import com.example.velvetden.dto.UserDetailsDTO;
 import com.example.velvetden.entity.User;
 import com.example.velvetden.repository.SpaceRepository;
 import com.example.velvetden.repository.UserRepository;
+import com.example.velvetden.security.AuthenticatedUser;
 import com.example.velvetden.service.EmailService;
 import com.example.velvetden.service.FileStorageService;
+import com.example.velvetden.service.PrincipalCache;
 import com.example.velvetden.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -31,13 +33,18 @@ public class UserController {
     private final UserService userService;
     private final FileStorageService fileStorageService;
     private final EmailService emailService;
+    private final PrincipalCache principalCache;
     
     @GetMapping("/me")
     public ResponseEntity<UserDetailsDTO> getCurrentUser(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        
+        // The principal only carries id, email and status; the profile comes from the database
+        User user = userRepository.findById(principal.getId())
+            .orElseThrow(() -> new RuntimeException("User not found"));
         
         // Get booked spaces count for this user
-        int bookedSpacesCount = spaceRepository.findByUserId(user.getId()).size();
+        int bookedSpacesCount = (int) spaceRepository.countByUserId(user.getId());
         
         UserDetailsDTO dto = new UserDetailsDTO();
         dto.setId(user.getId());
@@ -63,7 +70,7 @@ public class UserController {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        int bookedSpacesCount = spaceRepository.findByUserId(user.getId()).size();
+        int bookedSpacesCount = (int) spaceRepository.countByUserId(user.getId());
         
         UserDetailsDTO dto = new UserDetailsDTO();
         dto.setId(user.getId());
@@ -81,8 +88,8 @@ public class UserController {
         dto.setSize(user.getSize());
         
         // Only include adminComments if the requester is an admin
-        if (authentication != null && authentication.getPrincipal() instanceof User) {
-            User requester = (User) authentication.getPrincipal();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            AuthenticatedUser requester = (AuthenticatedUser) authentication.getPrincipal();
             if (requester.getIsAdmin() != null && requester.getIsAdmin()) {
                 dto.setAdminComments(user.getAdminComments());
             }
@@ -96,7 +103,7 @@ public class UserController {
             @RequestParam("verificationImage") MultipartFile verificationImage,
             Authentication authentication) {
         try {
-            User principalUser = (User) authentication.getPrincipal();
+            AuthenticatedUser principalUser = (AuthenticatedUser) authentication.getPrincipal();
             
             // Reload user from database to ensure we have the latest status
             User user = userRepository.findById(principalUser.getId())
@@ -114,6 +121,7 @@ public class UserController {
             
             // Update user with new image and change status to IN_REVIEW
             User updatedUser = userService.updateVerificationImage(user.getId(), imagePath);
+            principalCache.invalidate(updatedUser.getId());
             
             // Send email notification to admin (async)
             try {
@@ -129,7 +137,7 @@ public class UserController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            logger.error("Failed to upload picture for user: {}", authentication != null ? ((User) authentication.getPrincipal()).getEmail() : "unknown", e);
+            logger.error("Failed to upload picture for user: {}", authentication != null ? ((AuthenticatedUser) authentication.getPrincipal()).getEmail() : "unknown", e);
             Map<String, Object> error = new HashMap<>();
             String errorMessage = e.getMessage() != null ? e.getMessage() : "Failed to upload picture";
             error.put("error", errorMessage);
@@ -140,7 +148,7 @@ public class UserController {
     @PutMapping("/me")
     public ResponseEntity<?> updateCurrentUser(@RequestBody Map<String, Object> updates, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             
             // Reload user from database to ensure we have the latest data
             User currentUser = userRepository.findById(user.getId())
@@ -175,9 +183,10 @@ public class UserController {
             }
             
             userRepository.save(currentUser);
+            principalCache.invalidate(currentUser.getId());
             
             // Return updated user DTO
-            int bookedSpacesCount = spaceRepository.findByUserId(currentUser.getId()).size();
+            int bookedSpacesCount = (int) spaceRepository.countByUserId(currentUser.getId());
             UserDetailsDTO dto = new UserDetailsDTO();
             dto.setId(currentUser.getId());
             dto.setEmail(currentUser.getEmail());
@@ -195,7 +204,7 @@ public class UserController {
             
             return ResponseEntity.ok(dto);
         } catch (Exception e) {
-            logger.error("Failed to update user profile: {}", authentication != null ? ((User) authentication.getPrincipal()).getEmail() : "unknown", e);
+            logger.error("Failed to update user profile: {}", authentication != null ? ((AuthenticatedUser) authentication.getPrincipal()).getEmail() : "unknown", e);
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Failed to update profile: " + e.getMessage());
             return ResponseEntity.badRequest().body(error);
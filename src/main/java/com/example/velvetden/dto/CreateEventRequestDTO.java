@@ -14,5 +14,7 @@ public class CreateEventRequestDTO {
     private String city;
     private LocalDateTime dateTime;
     private List<Long> spaceTemplateIds; // IDs of space templates to use
+    private String bookingMode; // FIRST_COME (default) or LOTTERY
+    private LocalDateTime lotteryClosesAt; // Required for LOTTERY events
 }
 
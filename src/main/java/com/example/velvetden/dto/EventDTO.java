@@ -18,6 +18,8 @@ public class EventDTO {
     private int availableSpacesCount;
     private int totalSpacesCount;
     private boolean cancelled;
+    private String bookingMode;
+    private LocalDateTime lotteryClosesAt; // null unless bookingMode is LOTTERY
 }
 
 
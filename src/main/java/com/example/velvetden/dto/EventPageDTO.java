@@ -0,0 +1,15 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageDTO {
+    private List<EventDTO> events;
+    private String nextCursor; // null on the last page
+}
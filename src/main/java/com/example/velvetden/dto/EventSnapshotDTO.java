@@ -0,0 +1,43 @@
+package com.example.velvetden.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only copy of an {@link EventDTO}, for snapshots shared between requests. Serializes
+ * to the same JSON as the {@link EventDTO} it was copied from.
+ */
+@Value
+public class EventSnapshotDTO {
+    Long id;
+    String city;
+    LocalDateTime dateTime;
+    List<Space> spaces;
+    int availableSpacesCount;
+    int totalSpacesCount;
+    boolean cancelled;
+    String bookingMode;
+    LocalDateTime lotteryClosesAt;
+
+    @Value
+    public static class Space {
+        Long id;
+        String name;
+        String color;
+        boolean available;
+        boolean held;
+        String bookedBy;
+    }
+
+    public static EventSnapshotDTO of(EventDTO event) {
+        List<Space> spaces = event.getSpaces() == null ? List.of() : event.getSpaces().stream()
+            .map(space -> new Space(space.getId(), space.getName(), space.getColor(),
+                space.isAvailable(), space.isHeld(), space.getBookedBy()))
+            .toList();
+        return new EventSnapshotDTO(event.getId(), event.getCity(), event.getDateTime(), spaces,
+            event.getAvailableSpacesCount(), event.getTotalSpacesCount(), event.isCancelled(),
+            event.getBookingMode(), event.getLotteryClosesAt());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberImportErrorDTO {
+    private long row; // 1-based, not counting the CSV header
+    private String email;
+    private String error;
+}
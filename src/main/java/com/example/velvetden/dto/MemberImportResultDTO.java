@@ -0,0 +1,16 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberImportResultDTO {
+    private long imported;
+    private long failed;
+    private List<MemberImportErrorDTO> errors; // Capped; failed has the full count
+}
@@ -0,0 +1,14 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationActionDTO {
+    private Long userId;
+    private String action; // approve, reject or request-picture
+    private String notes; // Optional, stored as the user's verification notes
+}
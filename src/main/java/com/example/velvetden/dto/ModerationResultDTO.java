@@ -0,0 +1,16 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationResultDTO {
+    private Long userId;
+    private String action;
+    private boolean success;
+    private String status; // New status if successful
+    private String error; // Why not, if unsuccessful
+}
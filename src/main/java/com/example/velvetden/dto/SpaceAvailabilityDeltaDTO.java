@@ -0,0 +1,14 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceAvailabilityDeltaDTO {
+    private Long spaceId;
+    private boolean available;
+    private long version; // Increases with every broadcast, so clients can drop out-of-order deltas
+}
@@ -12,6 +12,7 @@ public class SpaceDTO {
     private String name;
     private String color;
     private boolean available;
+    private boolean held; // Booked but not yet confirmed
     private String bookedBy; // User email if booked, null if available
 }
 
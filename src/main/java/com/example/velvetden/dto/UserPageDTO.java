@@ -0,0 +1,16 @@
+package com.example.velvetden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserDetailsDTO> users;
+    private String nextCursor; // null on the last page
+    private Long totalCount; // Only counted for the first page
+}
@@ -3,7 +3,9 @@ package com.example.velvetden.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +16,8 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@ToString(exclude = "spaces")
+@EqualsAndHashCode(exclude = "spaces")
 public class Event {
     
     @Id
@@ -35,17 +39,37 @@ public class Event {
     @Column(nullable = false)
     private boolean cancelled = false;
     
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingMode bookingMode = BookingMode.FIRST_COME;
+    
+    @Column
+    private LocalDateTime lotteryClosesAt; // Only set for LOTTERY events
+    
+    @Column(nullable = false)
+    private boolean lotteryAllocated = false;
+    
+    // Maintained by the booking statements in SpaceRepository and EventRepository, never by
+    // entity updates, so a stale Event in memory can't overwrite them
+    @Column(name = "total_spaces", nullable = false, updatable = false)
+    private int totalSpacesCount = 0;
+    
+    @Column(name = "available_spaces", nullable = false, updatable = false)
+    private int availableSpacesCount = 0;
+    
+    // Only for events that haven't been saved yet; the counters are written on insert
     public void addSpace(Space space) {
         spaces.add(space);
         space.setEvent(this);
+        totalSpacesCount++;
+        if (space.getUser() == null) {
+            availableSpacesCount++;
+        }
     }
     
-    public int getAvailableSpacesCount() {
-        return (int) spaces.stream().filter(space -> space.getUser() == null).count();
-    }
-    
-    public int getTotalSpacesCount() {
-        return spaces.size();
+    public enum BookingMode {
+        FIRST_COME, // Spaces go to whoever books first
+        LOTTERY // Booking requests are collected until lotteryClosesAt, then allocated at random
     }
 }
 
@@ -3,35 +3,58 @@ package com.example.velvetden.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "spaces")
+@NamedEntityGraph(name = "Space.template", attributeNodes = @NamedAttributeNode("template"))
+@NamedEntityGraph(name = "Space.event", attributeNodes = @NamedAttributeNode("event"))
+@NamedEntityGraph(name = "Space.details", attributeNodes = {
+    @NamedAttributeNode("template"),
+    @NamedAttributeNode("event"),
+    @NamedAttributeNode("user")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@ToString(exclude = {"template", "event", "user"})
+@EqualsAndHashCode(exclude = {"template", "event", "user"})
 public class Space {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    // Associations are lazy; readers pick what they need with the entity graphs above,
+    // or use SpaceRepository.SpaceView when they only need a few columns. Open-in-view is
+    // off, so an association no reader fetched fails fast instead of loading per row
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "space_template_id", nullable = false)
     private SpaceTemplate template; // Reusable space template
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user; // null if available
     
+    @Column
+    private LocalDateTime holdExpiresAt; // Set while the booking is only held, null once confirmed
+    
     public boolean isAvailable() {
         return user == null;
     }
     
+    public boolean isHeld() {
+        return user != null && holdExpiresAt != null;
+    }
+    
     // Convenience methods to access template properties
     public String getName() {
         return template != null ? template.getName() : null;
@@ -68,6 +68,10 @@ public class User {
     @Column(columnDefinition = "TEXT")
     private String adminComments; // Admin-only comments field
     
+    // Bumped by the database whenever status or isAdmin changes, revoking older tokens
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer tokenVersion = 0;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     @JsonIgnore // Prevent lazy loading issues during serialization
     private List<Space> bookedSpaces = new ArrayList<>();
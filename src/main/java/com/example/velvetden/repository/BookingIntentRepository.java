@@ -0,0 +1,71 @@
+package com.example.velvetden.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lottery booking intents. Plain JDBC so intents collected in memory can be written in
+ * one batch instead of one insert (and identity round trip) per request.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingIntentRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the intents in a single JDBC batch. Rows are (eventId, spaceId, userId);
+     * a user's later intent for the same event is ignored.
+     */
+    public void saveAll(List<long[]> intents, LocalDateTime createdAt) {
+        if (intents.isEmpty()) {
+            return;
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO booking_intents (event_id, space_id, user_id, created_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (event_id, user_id) DO NOTHING",
+            intents,
+            intents.size(),
+            (ps, intent) -> {
+                ps.setLong(1, intent[0]);
+                ps.setLong(2, intent[1]);
+                ps.setLong(3, intent[2]);
+                ps.setTimestamp(4, timestamp);
+            });
+    }
+
+    /**
+     * Intents of an event as (spaceId, userId) rows, in the order they were received.
+     */
+    public List<long[]> findByEventId(Long eventId) {
+        return jdbcTemplate.query(
+            "SELECT space_id, user_id FROM booking_intents WHERE event_id = ? ORDER BY id",
+            (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+            eventId);
+    }
+
+    public List<Long> findUserIdsByEventId(Long eventId) {
+        return jdbcTemplate.queryForList(
+            "SELECT user_id FROM booking_intents WHERE event_id = ?", Long.class, eventId);
+    }
+
+    public void deleteByEventId(Long eventId) {
+        jdbcTemplate.update("DELETE FROM booking_intents WHERE event_id = ?", eventId);
+    }
+
+    /**
+     * Removes intents left behind by lotteries that were allocated or cancelled.
+     */
+    public int deleteSettled() {
+        return jdbcTemplate.update(
+            "DELETE FROM booking_intents i USING events e " +
+            "WHERE e.id = i.event_id AND (e.lottery_allocated OR e.cancelled)");
+    }
+}
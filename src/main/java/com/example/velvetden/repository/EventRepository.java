@@ -1,23 +1,68 @@
 package com.example.velvetden.repository;
 
 import com.example.velvetden.entity.Event;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
     Optional<Event> findFirstByIsUpcomingTrueAndCancelledFalseAndDateTimeAfterOrderByDateTimeAsc(LocalDateTime now);
     Optional<Event> findFirstByIsUpcomingTrueAndCancelledTrueAndDateTimeAfterOrderByDateTimeAsc(LocalDateTime now);
     // For cancelled events, check dateTime only (ignore isUpcoming flag)
     @Query(value = "SELECT * FROM events WHERE cancelled = true AND date_time > :now ORDER BY date_time ASC LIMIT 1", nativeQuery = true)
     Optional<Event> findFirstCancelledEventAfter(@Param("now") LocalDateTime now);
-    List<Event> findAllByOrderByDateTimeDesc();
+    
+    List<Event> findByBookingModeAndLotteryAllocatedFalse(Event.BookingMode bookingMode);
+    
+    // Events whose space counters disagree with their spaces. Unlocked, so only a hint for repairSpaceCounters
+    @Query(value = """
+        SELECT e.id FROM events e
+        LEFT JOIN spaces s ON s.event_id = e.id
+        GROUP BY e.id, e.total_spaces, e.available_spaces
+        HAVING e.total_spaces <> COUNT(s.id)
+            OR e.available_spaces <> COUNT(s.id) FILTER (WHERE s.user_id IS NULL)
+        """, nativeQuery = true)
+    List<Long> findIdsWithSpaceCounterDrift();
+    
+    // Taken before counting, so bookings of the event wait until the repair commits
+    @Query(value = "SELECT id FROM events WHERE id = :eventId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("eventId") Long eventId);
+    
+    @Modifying
+    @Query(value = """
+        UPDATE events e SET
+            total_spaces = (SELECT COUNT(*) FROM spaces s WHERE s.event_id = e.id),
+            available_spaces = (SELECT COUNT(*) FROM spaces s WHERE s.event_id = e.id AND s.user_id IS NULL)
+        WHERE e.id = :eventId
+        """, nativeQuery = true)
+    int repairSpaceCounters(@Param("eventId") Long eventId);
+    
+    /**
+     * Whole event history as flat rows, one per space (or one per event without spaces), ordered
+     * so each event's rows are adjacent. Read through a forward-only cursor; must be consumed
+     * and closed inside a transaction.
+     *
+     * Rows are (eventId, city, dateTime, cancelled, spaceId, spaceName, color, bookedByEmail).
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.id, e.city, e.dateTime, e.cancelled, s.id, t.name, t.color, u.email " +
+           "FROM Event e LEFT JOIN e.spaces s LEFT JOIN s.template t LEFT JOIN s.user u " +
+           "ORDER BY e.dateTime DESC, e.id DESC, s.id ASC")
+    Stream<Object[]> streamHistory();
 }
 
 
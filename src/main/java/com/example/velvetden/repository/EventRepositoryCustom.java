@@ -0,0 +1,26 @@
+package com.example.velvetden.repository;
+
+import com.example.velvetden.entity.Event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EventRepositoryCustom {
+    
+    /**
+     * One page of events (without their spaces), newest first, using keyset pagination on (dateTime, id).
+     * Every filter is optional and only added to the query when set, so the matching
+     * index can be used.
+     *
+     * @param afterDateTime dateTime of the last event on the previous page, null for the first page
+     * @param afterId id of the last event on the previous page, null for the first page
+     */
+    List<Event> findPage(
+        String city,
+        LocalDateTime from,
+        LocalDateTime to,
+        Boolean cancelled,
+        LocalDateTime afterDateTime,
+        Long afterId,
+        int limit);
+}
@@ -0,0 +1,65 @@
+package com.example.velvetden.repository;
+
+import com.example.velvetden.entity.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventRepositoryImpl implements EventRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Event> findPage(
+            String city,
+            LocalDateTime from,
+            LocalDateTime to,
+            Boolean cancelled,
+            LocalDateTime afterDateTime,
+            Long afterId,
+            int limit) {
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> event = query.from(Event.class);
+        Path<LocalDateTime> dateTime = event.get("dateTime");
+        Path<Long> id = event.get("id");
+        
+        List<Predicate> predicates = new ArrayList<>();
+        if (city != null && !city.isBlank()) {
+            predicates.add(cb.equal(event.get("city"), city));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(dateTime, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(dateTime, to));
+        }
+        if (cancelled != null) {
+            predicates.add(cb.equal(event.get("cancelled"), cancelled));
+        }
+        if (afterDateTime != null && afterId != null) {
+            // Strictly after the previous page's last row in (dateTime DESC, id DESC) order
+            predicates.add(cb.or(
+                cb.lessThan(dateTime, afterDateTime),
+                cb.and(cb.equal(dateTime, afterDateTime), cb.lessThan(id, afterId))));
+        }
+        
+        query.select(event)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.desc(dateTime), cb.desc(id));
+        
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
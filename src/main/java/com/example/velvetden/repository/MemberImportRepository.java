@@ -0,0 +1,90 @@
+package com.example.velvetden.repository;
+
+import com.example.velvetden.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Member inserts for bulk imports. Plain JDBC so a chunk of members is written in one batch,
+ * which the IDENTITY ids of the {@link User} entity would otherwise prevent.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewMember(
+        String email,
+        String passwordHash,
+        String firstName,
+        String lastName,
+        User.UserStatus status,
+        Integer age,
+        String location,
+        String height,
+        String size,
+        String adminComments) {
+    }
+
+    public Set<String> findAllEmails() {
+        Set<String> emails = new HashSet<>();
+        jdbcTemplate.query("SELECT email FROM users", rs -> {
+            emails.add(rs.getString(1));
+        });
+        return emails;
+    }
+
+    /**
+     * Inserts the members in a single JDBC batch. Members whose email was registered in the
+     * meantime are skipped; their entry in the returned counts is 0.
+     */
+    public int[] insertAll(List<NewMember> members, LocalDateTime createdAt) {
+        if (members.isEmpty()) {
+            return new int[0];
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        return jdbcTemplate.batchUpdate(
+            "INSERT INTO users (email, password, first_name, last_name, status, is_admin, created_at, " +
+            "age, location, height, size, admin_comments) VALUES (?, ?, ?, ?, ?, false, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (email) DO NOTHING",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    NewMember member = members.get(i);
+                    ps.setString(1, member.email());
+                    ps.setString(2, member.passwordHash());
+                    ps.setString(3, member.firstName());
+                    ps.setString(4, member.lastName());
+                    ps.setString(5, member.status().name());
+                    ps.setTimestamp(6, timestamp);
+                    if (member.age() != null) {
+                        ps.setInt(7, member.age());
+                    } else {
+                        ps.setNull(7, Types.INTEGER);
+                    }
+                    ps.setString(8, member.location());
+                    ps.setString(9, member.height());
+                    ps.setString(10, member.size());
+                    ps.setString(11, member.adminComments());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return members.size();
+                }
+            });
+    }
+}
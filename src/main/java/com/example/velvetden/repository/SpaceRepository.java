@@ -1,36 +1,208 @@
 package com.example.velvetden.repository;
 
 import com.example.velvetden.entity.Space;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SpaceRepository extends JpaRepository<Space, Long> {
+    @EntityGraph("Space.details")
     List<Space> findByEventId(Long eventId);
+    @EntityGraph("Space.details")
     Optional<Space> findByEventIdAndId(Long eventId, Long spaceId);
+    @EntityGraph("Space.template")
     List<Space> findByEventIdAndUserIsNull(Long eventId);
+    @EntityGraph("Space.event")
     List<Space> findByUserId(Long userId);
+    @EntityGraph("Space.template")
+    Optional<Space> findWithTemplateById(Long id);
+    // For booked space counts; nothing is loaded
+    long countByUserId(Long userId);
     
-    @Query("SELECT s FROM Space s LEFT JOIN FETCH s.user WHERE s.id = :spaceId")
+    // Read model for event pages: only the columns the event DTOs show, for many events at once
+    @Query("SELECT s.id AS id, s.event.id AS eventId, t.name AS name, t.color AS color, " +
+           "u.email AS bookedBy, s.holdExpiresAt AS holdExpiresAt " +
+           "FROM Space s JOIN s.template t LEFT JOIN s.user u " +
+           "WHERE s.event.id IN :eventIds ORDER BY s.id")
+    List<SpaceView> findViewsByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+    
+    @Query("SELECT s FROM Space s JOIN FETCH s.template JOIN FETCH s.event LEFT JOIN FETCH s.user WHERE s.id = :spaceId")
     Optional<Space> findByIdWithUser(@Param("spaceId") Long spaceId);
     
+    // Slot rows for the in-memory booking ledger: (spaceId, userId)
+    @Query("SELECT s.id, u.id FROM Space s LEFT JOIN s.user u WHERE s.event.id = :eventId")
+    List<Object[]> findSlotsByEventId(@Param("eventId") Long eventId);
+    
+    // Slot rows of one event for the in-memory booking ledger, none once it has started: (spaceId, userId, dateTime)
+    @Query("SELECT s.id, u.id, e.dateTime FROM Space s JOIN s.event e LEFT JOIN s.user u " +
+           "WHERE e.id = :eventId AND e.dateTime > :now")
+    List<Object[]> findOpenSlotsByEventId(@Param("eventId") Long eventId, @Param("now") LocalDateTime now);
+    
+    // Slot rows for the in-memory booking ledger: (eventId, spaceId, userId, dateTime)
+    @Query("SELECT e.id, s.id, u.id, e.dateTime FROM Space s JOIN s.event e LEFT JOIN s.user u WHERE e.dateTime > :now")
+    List<Object[]> findSlotsOfEventsAfter(@Param("now") LocalDateTime now);
+    
+    /**
+     * Books a space in a single statement. The row is only claimed if it belongs to the event,
+     * is still free and the user has no other space in the same event; otherwise the outcome
+     * code says why not. Two concurrent bookings by the same user for different spaces can both
+     * pass the NOT EXISTS check; the unique index from V18 fails the second one instead. A non-null {@code holdExpiresAt} books it as a hold that must be confirmed.
+     * The event's available space counter is decremented in the same statement.
+     *
+     * @return BOOKED, ALREADY_BOOKED, EVENT_NOT_FOUND, SPACE_NOT_FOUND or SPACE_TAKEN
+     */
+    @Query(value = """
+        WITH booked AS (
+            UPDATE spaces SET user_id = :userId, hold_expires_at = CAST(:holdExpiresAt AS TIMESTAMP)
+            WHERE id = :spaceId AND event_id = :eventId AND user_id IS NULL
+              AND NOT EXISTS (SELECT 1 FROM spaces o WHERE o.event_id = :eventId AND o.user_id = :userId)
+            RETURNING id
+        ), counted AS (
+            UPDATE events SET available_spaces = available_spaces - 1
+            WHERE id = :eventId AND EXISTS (SELECT 1 FROM booked)
+        )
+        SELECT CASE
+            WHEN EXISTS (SELECT 1 FROM booked) THEN 'BOOKED'
+            WHEN EXISTS (SELECT 1 FROM spaces o WHERE o.event_id = :eventId AND o.user_id = :userId) THEN 'ALREADY_BOOKED'
+            WHEN NOT EXISTS (SELECT 1 FROM events e WHERE e.id = :eventId) THEN 'EVENT_NOT_FOUND'
+            WHEN NOT EXISTS (SELECT 1 FROM spaces s WHERE s.id = :spaceId AND s.event_id = :eventId) THEN 'SPACE_NOT_FOUND'
+            ELSE 'SPACE_TAKEN'
+        END
+        """, nativeQuery = true)
+    String bookIfAvailable(
+        @Param("eventId") Long eventId,
+        @Param("spaceId") Long spaceId,
+        @Param("userId") Long userId,
+        @Param("holdExpiresAt") LocalDateTime holdExpiresAt);
+    
+    /**
+     * Cancels a booking in a single statement, only if the space is currently booked by the
+     * specified user. The event id is returned alongside the outcome so listeners can be notified.
+     * The event's available space counter is incremented in the same statement.
+     *
+     * @return CANCELLED, SPACE_NOT_FOUND, NOT_BOOKED or NOT_OWNER, with the space's event id
+     */
+    @Query(value = """
+        WITH target AS (
+            SELECT id, event_id, user_id FROM spaces WHERE id = :spaceId
+        ), cancelled AS (
+            UPDATE spaces SET user_id = NULL, hold_expires_at = NULL
+            WHERE id = :spaceId AND user_id = :userId
+            RETURNING id
+        ), counted AS (
+            UPDATE events SET available_spaces = available_spaces + 1
+            WHERE id = (SELECT event_id FROM target) AND EXISTS (SELECT 1 FROM cancelled)
+        )
+        SELECT CASE
+            WHEN EXISTS (SELECT 1 FROM cancelled) THEN 'CANCELLED'
+            WHEN NOT EXISTS (SELECT 1 FROM target) THEN 'SPACE_NOT_FOUND'
+            WHEN (SELECT user_id FROM target) IS NULL THEN 'NOT_BOOKED'
+            ELSE 'NOT_OWNER'
+        END AS "outcome",
+        (SELECT event_id FROM target) AS "eventId"
+        """, nativeQuery = true)
+    CancellationOutcome cancelBookingIfOwnedByUser(@Param("spaceId") Long spaceId, @Param("userId") Long userId);
+    
+    /**
+     * Cancels any booking or hold on a space in a single statement, as an admin. The event id
+     * and the user who had the space are returned alongside the outcome so listeners can be
+     * notified. The event's available space counter is incremented in the same statement.
+     *
+     * @return CANCELLED, SPACE_NOT_FOUND or NOT_BOOKED, with the space's event id and previous user
+     */
+    @Query(value = """
+        WITH target AS (
+            SELECT id, event_id FROM spaces WHERE id = :spaceId
+        ), cancelled AS (
+            UPDATE spaces s SET user_id = NULL, hold_expires_at = NULL
+            FROM spaces previous
+            WHERE previous.id = s.id AND s.id = :spaceId AND s.user_id IS NOT NULL
+            RETURNING previous.user_id
+        ), counted AS (
+            UPDATE events SET available_spaces = available_spaces + 1
+            WHERE id = (SELECT event_id FROM target) AND EXISTS (SELECT 1 FROM cancelled)
+        )
+        SELECT CASE
+            WHEN EXISTS (SELECT 1 FROM cancelled) THEN 'CANCELLED'
+            WHEN NOT EXISTS (SELECT 1 FROM target) THEN 'SPACE_NOT_FOUND'
+            ELSE 'NOT_BOOKED'
+        END AS "outcome",
+        (SELECT event_id FROM target) AS "eventId",
+        (SELECT user_id FROM cancelled) AS "previousUserId"
+        """, nativeQuery = true)
+    AdminCancellationOutcome cancelBookingIfBooked(@Param("spaceId") Long spaceId);
+    
+    /**
+     * Confirms a hold in a single statement, only if it is held by the specified user and
+     * has not expired yet.
+     *
+     * @return CONFIRMED, SPACE_NOT_FOUND, NOT_OWNER, NOT_HELD or EXPIRED
+     */
+    @Query(value = """
+        WITH target AS (
+            SELECT id, user_id, hold_expires_at FROM spaces WHERE id = :spaceId
+        ), confirmed AS (
+            UPDATE spaces SET hold_expires_at = NULL
+            WHERE id = :spaceId AND user_id = :userId AND hold_expires_at > :now
+            RETURNING id
+        )
+        SELECT CASE
+            WHEN EXISTS (SELECT 1 FROM confirmed) THEN 'CONFIRMED'
+            WHEN NOT EXISTS (SELECT 1 FROM target) THEN 'SPACE_NOT_FOUND'
+            WHEN (SELECT user_id FROM target) IS DISTINCT FROM :userId THEN 'NOT_OWNER'
+            WHEN (SELECT hold_expires_at FROM target) IS NULL THEN 'NOT_HELD'
+            ELSE 'EXPIRED'
+        END
+        """, nativeQuery = true)
+    String confirmHoldIfOwnedByUser(@Param("spaceId") Long spaceId, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
     /**
-     * Atomically cancels a booking by setting user_id to null only if the space
-     * is currently booked by the specified user. Returns the number of rows affected.
-     * 
-     * @param spaceId The ID of the space to cancel
-     * @param userId The ID of the user who should own the booking
-     * @return Number of rows updated (1 if successful, 0 if booking doesn't exist or doesn't belong to user)
+     * Releases the given holds in one statement if they have expired and were not confirmed
+     * in the meantime, giving the spaces back to their events' available counters. Rows come
+     * back as (spaceId, eventId, userId) for the released holds.
      */
-    @Modifying(clearAutomatically = true)
-    @Query("UPDATE Space s SET s.user = null WHERE s.id = :spaceId AND s.user IS NOT NULL AND s.user.id = :userId")
-    int cancelBookingIfOwnedByUser(@Param("spaceId") Long spaceId, @Param("userId") Long userId);
+    @Query(value = """
+        WITH released AS (
+            UPDATE spaces s SET user_id = NULL, hold_expires_at = NULL
+            FROM spaces previous
+            WHERE previous.id = s.id AND s.id IN (:spaceIds) AND s.hold_expires_at <= :now
+            RETURNING s.id, s.event_id, previous.user_id
+        ), counted AS (
+            UPDATE events e SET available_spaces = e.available_spaces + r.n
+            FROM (SELECT event_id, COUNT(*) AS n FROM released GROUP BY event_id) r
+            WHERE e.id = r.event_id
+        )
+        SELECT id, event_id, user_id FROM released
+        """, nativeQuery = true)
+    List<Object[]> releaseExpiredHolds(@Param("spaceIds") List<Long> spaceIds, @Param("now") LocalDateTime now);
+    
+    // Holds that still need to be confirmed or expired: (spaceId, userId, holdExpiresAt)
+    @Query("SELECT s.id, s.user.id, s.holdExpiresAt FROM Space s WHERE s.holdExpiresAt IS NOT NULL")
+    List<Object[]> findActiveHolds();
+    
+    interface SpaceView {
+        Long getId();
+        Long getEventId();
+        String getName();
+        Space.SpaceColor getColor();
+        String getBookedBy(); // null if available
+        LocalDateTime getHoldExpiresAt();
+    }
+    
+    interface CancellationOutcome {
+        String getOutcome();
+        Long getEventId();
+    }
+    
+    interface AdminCancellationOutcome extends CancellationOutcome {
+        Long getPreviousUserId(); // null unless cancelled
+    }
 }
-
-
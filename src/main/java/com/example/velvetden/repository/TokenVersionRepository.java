@@ -0,0 +1,59 @@
+package com.example.velvetden.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads the per-user token versions that the V16 trigger bumps on status and admin changes.
+ * Each bump is stamped with a {@code token_revision} when its transaction commits (V17).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenVersionRepository {
+
+    private static final String SELECT_CHANGES =
+        "SELECT id, token_version, token_version_changed_at, token_revision FROM users " +
+        "WHERE token_revision IS NOT NULL ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record VersionChange(long userId, int tokenVersion, LocalDateTime changedAt, long revision) {
+    }
+
+    /**
+     * Users whose tokens were revoked after revision {@code revision}, in revision order. Also
+     * returns changes from the last {@code overlapSeconds}: a revision is drawn just before its
+     * transaction commits, so one that commits a moment late can sit below a revision already
+     * seen.
+     */
+    public List<VersionChange> findChangedAfter(long revision, long overlapSeconds) {
+        return jdbcTemplate.query(
+            SELECT_CHANGES + "AND (token_revision > ? " +
+            "OR token_version_changed_at > clock_timestamp() - ? * INTERVAL '1 second') " +
+            "ORDER BY token_revision",
+            (rs, rowNum) -> toChange(rs),
+            revision, overlapSeconds);
+    }
+
+    /**
+     * Users whose tokens were revoked in the last {@code millis}, by the database clock, so the
+     * window does not depend on the application's time zone.
+     */
+    public List<VersionChange> findChangedWithin(long millis) {
+        return jdbcTemplate.query(
+            SELECT_CHANGES + "AND token_version_changed_at > clock_timestamp() - ? * INTERVAL '1 millisecond' " +
+            "ORDER BY token_revision",
+            (rs, rowNum) -> toChange(rs),
+            millis);
+    }
+
+    private VersionChange toChange(ResultSet rs) throws SQLException {
+        return new VersionChange(rs.getLong(1), rs.getInt(2), rs.getTimestamp(3).toLocalDateTime(), rs.getLong(4));
+    }
+}
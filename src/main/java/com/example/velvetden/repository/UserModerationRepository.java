@@ -0,0 +1,67 @@
+package com.example.velvetden.repository;
+
+import com.example.velvetden.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Set-based status and notes updates for bulk moderation: one statement per status for the
+ * whole batch instead of a load and save per user.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserModerationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Moderated(long id, String email, String firstName, User.UserStatus status, User.UserStatus previousStatus) {
+        public boolean changed() {
+            return status != previousStatus;
+        }
+    }
+
+    /**
+     * Sets the status of all given users in one statement and returns the users that exist,
+     * with the status each one had before.
+     */
+    public List<Moderated> updateStatus(List<Long> userIds, User.UserStatus status) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(
+            con -> {
+                PreparedStatement ps = con.prepareStatement(
+                    "UPDATE users u SET status = ? FROM users previous " +
+                    "WHERE previous.id = u.id AND u.id = ANY(?) " +
+                    "RETURNING u.id, u.email, u.first_name, previous.status");
+                ps.setString(1, status.name());
+                ps.setArray(2, con.createArrayOf("bigint", userIds.toArray()));
+                return ps;
+            },
+            (rs, rowNum) -> new Moderated(rs.getLong(1), rs.getString(2), rs.getString(3), status,
+                User.UserStatus.valueOf(rs.getString(4))));
+    }
+
+    /**
+     * Sets each user's verification notes, pairing {@code userIds} and {@code notes} by position.
+     */
+    public void updateNotes(List<Long> userIds, List<String> notes) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                "UPDATE users u SET verification_notes = v.notes " +
+                "FROM unnest(?, ?) AS v(id, notes) WHERE u.id = v.id");
+            ps.setArray(1, con.createArrayOf("bigint", userIds.toArray()));
+            ps.setArray(2, con.createArrayOf("text", notes.toArray()));
+            return ps;
+        });
+    }
+}
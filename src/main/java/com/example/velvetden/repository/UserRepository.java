@@ -1,15 +1,77 @@
 package com.example.velvetden.repository;
 
 import com.example.velvetden.entity.User;
+import com.example.velvetden.security.AuthenticatedUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    /**
+     * Only the columns the security context needs, without the profile and admin comments.
+     */
+    @Query("SELECT new com.example.velvetden.security.AuthenticatedUser(u.id, u.email, u.status, u.isAdmin, u.tokenVersion) " +
+           "FROM User u WHERE u.email = :email")
+    Optional<AuthenticatedUser> findPrincipalByEmail(@Param("email") String email);
+    
+    // Rehash on login after the work factor is raised; leaves the rest of the row alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+    
+    /**
+     * All members with their booked space counts, in id order, read through a forward-only
+     * cursor; must be consumed and closed inside a transaction.
+     *
+     * Rows are (id, email, firstName, lastName, status, createdAt, age, location, height, size,
+     * adminComments, bookedSpacesCount).
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id, u.email, u.firstName, u.lastName, u.status, u.createdAt, u.age, u.location, " +
+           "u.height, u.size, u.adminComments, (SELECT COUNT(s) FROM Space s WHERE s.user = u) " +
+           "FROM User u ORDER BY u.id")
+    Stream<Object[]> streamForExport();
+    
+    /**
+     * Members matching a prefix full-text query, or close to the search term by trigram
+     * similarity of their name and email, best matches first. Both branches use the indexes
+     * added in V15. Rows are (userId, bookedSpacesCount).
+     */
+    @Query(value = """
+        SELECT u.id, (SELECT COUNT(*) FROM spaces s WHERE s.user_id = u.id)
+        FROM users u
+        WHERE (u.search_vector @@ to_tsquery('simple', :prefixQuery)
+               OR :term <% lower(u.email || ' ' || u.first_name || ' ' || u.last_name))
+          AND (CAST(:status AS VARCHAR) IS NULL OR u.status = CAST(:status AS VARCHAR))
+        ORDER BY ts_rank(u.search_vector, to_tsquery('simple', :prefixQuery))
+                 + word_similarity(:term, lower(u.email || ' ' || u.first_name || ' ' || u.last_name)) DESC,
+                 u.id
+        LIMIT :limit OFFSET :offset
+        """, nativeQuery = true)
+    List<Object[]> search(
+        @Param("prefixQuery") String prefixQuery,
+        @Param("term") String term,
+        @Param("status") String status,
+        @Param("limit") int limit,
+        @Param("offset") int offset);
 }
 
 
@@ -0,0 +1,35 @@
+package com.example.velvetden.repository;
+
+import com.example.velvetden.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    
+    enum AdminSort {
+        CREATED_AT, // Newest first
+        EMAIL,
+        LAST_NAME
+    }
+    
+    /**
+     * One page of members for the admin listing, with the number of spaces each has booked,
+     * using keyset pagination on (sort key, id). Rows are (User, bookedSpacesCount).
+     *
+     * @param status only members with this status, or null for all
+     * @param activeBookingOnly only members holding a space in an upcoming, non-cancelled event
+     * @param afterValue sort key of the last member on the previous page, null for the first page
+     * @param afterId id of the last member on the previous page, null for the first page
+     */
+    List<Object[]> findAdminPage(
+        User.UserStatus status,
+        boolean activeBookingOnly,
+        LocalDateTime now,
+        AdminSort sort,
+        Object afterValue,
+        Long afterId,
+        int limit);
+    
+    long countAdminPage(User.UserStatus status, boolean activeBookingOnly, LocalDateTime now);
+}
@@ -0,0 +1,118 @@
+package com.example.velvetden.repository;
+
+import com.example.velvetden.entity.Event;
+import com.example.velvetden.entity.Space;
+import com.example.velvetden.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Object[]> findAdminPage(
+            User.UserStatus status,
+            boolean activeBookingOnly,
+            LocalDateTime now,
+            AdminSort sort,
+            Object afterValue,
+            Long afterId,
+            int limit) {
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<User> user = query.from(User.class);
+        Path<Long> id = user.get("id");
+        
+        // Booked spaces are counted per row in the same statement
+        Subquery<Long> bookedSpaces = query.subquery(Long.class);
+        Root<Space> space = bookedSpaces.from(Space.class);
+        bookedSpaces.select(cb.count(space)).where(cb.equal(space.get("user"), user));
+        
+        List<Predicate> predicates = filters(cb, query, user, status, activeBookingOnly, now);
+        boolean descending = sort == AdminSort.CREATED_AT;
+        
+        if (afterValue != null && afterId != null) {
+            // Strictly after the previous page's last row in (sort key, id) order
+            switch (sort) {
+                case CREATED_AT -> predicates.add(after(cb, user.<LocalDateTime>get("createdAt"), id, (LocalDateTime) afterValue, afterId, descending));
+                case EMAIL -> predicates.add(after(cb, user.<String>get("email"), id, (String) afterValue, afterId, descending));
+                case LAST_NAME -> predicates.add(after(cb, user.<String>get("lastName"), id, (String) afterValue, afterId, descending));
+            }
+        }
+        
+        Path<?> sortKey = switch (sort) {
+            case CREATED_AT -> user.get("createdAt");
+            case EMAIL -> user.get("email");
+            case LAST_NAME -> user.get("lastName");
+        };
+        
+        query.multiselect(user, bookedSpaces)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(descending
+                ? List.of(cb.desc(sortKey), cb.desc(id))
+                : List.of(cb.asc(sortKey), cb.asc(id)));
+        
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+    
+    @Override
+    public long countAdminPage(User.UserStatus status, boolean activeBookingOnly, LocalDateTime now) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+        
+        query.select(cb.count(user))
+            .where(filters(cb, query, user, status, activeBookingOnly, now).toArray(new Predicate[0]));
+        
+        return entityManager.createQuery(query).getSingleResult();
+    }
+    
+    private List<Predicate> filters(
+            CriteriaBuilder cb,
+            AbstractQuery<?> query,
+            Root<User> user,
+            User.UserStatus status,
+            boolean activeBookingOnly,
+            LocalDateTime now) {
+        
+        List<Predicate> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(cb.equal(user.get("status"), status));
+        }
+        if (activeBookingOnly) {
+            Subquery<Long> activeBooking = query.subquery(Long.class);
+            Root<Space> space = activeBooking.from(Space.class);
+            Join<Space, Event> event = space.join("event");
+            activeBooking.select(space.get("id")).where(
+                cb.equal(space.get("user"), user),
+                cb.greaterThan(event.get("dateTime"), now),
+                cb.isFalse(event.get("cancelled")));
+            predicates.add(cb.exists(activeBooking));
+        }
+        return predicates;
+    }
+    
+    private <Y extends Comparable<? super Y>> Predicate after(
+            CriteriaBuilder cb, Path<Y> key, Path<Long> id, Y value, Long afterId, boolean descending) {
+        return descending
+            ? cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(id, afterId)))
+            : cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(id, afterId)));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.velvetden.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Applies {@link AuthRateLimits} to login and registration ahead of the security filter chain,
+ * so over-limit requests get 429 before Spring Security, BCrypt or the database are involved.
+ *
+ * Login is limited per IP and then per email, read from its small JSON body. Registration is
+ * only limited per IP here: its email is a multipart form field, and reading it would mean
+ * parsing the whole upload first. The registration controller checks the email limit once
+ * the request is parsed, before the verification image is stored.
+ *
+ * Rejections carry the CORS headers, so cross-origin clients can read the status and
+ * {@code Retry-After}.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String REGISTER_PATH = "/api/registration/register";
+    private static final int MAX_LOGIN_BODY_BYTES = 8 * 1024; // Login bodies are a few hundred bytes
+
+    private final AuthRateLimits authRateLimits;
+    private final ObjectMapper objectMapper;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    public AuthRateLimitFilter(
+            AuthRateLimits authRateLimits,
+            ObjectMapper objectMapper,
+            @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource) {
+        this.authRateLimits = authRateLimits;
+        this.objectMapper = objectMapper;
+        this.corsConfigurationSource = corsConfigurationSource;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!authRateLimits.isEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return !LOGIN_PATH.equals(path) && !REGISTER_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        // The client's address; behind a trusted proxy, taken from X-Forwarded-For by Tomcat
+        String ip = request.getRemoteAddr();
+
+        if (REGISTER_PATH.equals(request.getServletPath())) {
+            long retryAfter = authRateLimits.acquireRegistrationByIp(ip);
+            if (retryAfter > 0) {
+                reject(request, response, retryAfter);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = authRateLimits.acquireLoginByIp(ip);
+        if (retryAfter > 0) {
+            reject(request, response, retryAfter);
+            return;
+        }
+
+        // The JSON body is read here, so it is handed on through a replaying wrapper
+        byte[] body = request.getInputStream().readNBytes(MAX_LOGIN_BODY_BYTES + 1);
+        if (body.length > MAX_LOGIN_BODY_BYTES) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body is too large");
+            return;
+        }
+
+        retryAfter = authRateLimits.acquireLoginByEmail(parseEmail(body));
+        if (retryAfter > 0) {
+            reject(request, response, retryAfter);
+            return;
+        }
+
+        filterChain.doFilter(new BufferedBodyRequest(request, body), response);
+    }
+
+    private String parseEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText() : null;
+        } catch (IOException | RuntimeException e) {
+            return null; // Malformed bodies are left for the controller to reject
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        writeError(request, response, HttpStatus.TOO_MANY_REQUESTS.value(), "Too many attempts. Please try again in a moment.");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, int status, String message) throws IOException {
+        // Normally added by the CORS filter inside the security chain, which this response skips
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null) {
+            corsProcessor.processRequest(cors, request, response);
+        }
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    /**
+     * Replays a body that has already been read in full.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        private final BufferedBodyInputStream body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = new BufferedBodyInputStream(body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class BufferedBodyInputStream extends ServletInputStream {
+        private final ByteArrayInputStream body;
+
+        private BufferedBodyInputStream(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return body.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return body.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return body.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true; // Reads never block, everything is in memory
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            // All data is available now: one callback to read it, then the end of the body
+            try {
+                if (!isFinished()) {
+                    readListener.onDataAvailable();
+                }
+                if (isFinished()) {
+                    readListener.onAllDataRead();
+                }
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.velvetden.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Token-bucket limits for login and registration, per client IP and per email. Limits are
+ * requests per minute, with bursts up to the same number; 0 disables a limit.
+ *
+ * Each {@code acquire} method takes a token and returns 0, or the seconds until the key has a
+ * token again when it is over its limit.
+ */
+@Component
+public class AuthRateLimits {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimits.class);
+
+    private final boolean enabled;
+    private final TokenBucketLimiter loginPerIp;
+    private final TokenBucketLimiter loginPerEmail;
+    private final TokenBucketLimiter registerPerIp;
+    private final TokenBucketLimiter registerPerEmail;
+
+    public AuthRateLimits(
+            @Value("${auth.rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.rate-limit.login.per-ip-per-minute:20}") int loginPerIp,
+            @Value("${auth.rate-limit.login.per-email-per-minute:5}") int loginPerEmail,
+            @Value("${auth.rate-limit.register.per-ip-per-minute:5}") int registerPerIp,
+            @Value("${auth.rate-limit.register.per-email-per-minute:3}") int registerPerEmail,
+            @Value("${auth.rate-limit.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.enabled = enabled;
+        this.loginPerIp = limiter("login.per-ip", loginPerIp, maxTrackedKeys);
+        this.loginPerEmail = limiter("login.per-email", loginPerEmail, maxTrackedKeys);
+        this.registerPerIp = limiter("register.per-ip", registerPerIp, maxTrackedKeys);
+        this.registerPerEmail = limiter("register.per-email", registerPerEmail, maxTrackedKeys);
+    }
+
+    private static TokenBucketLimiter limiter(String name, int perMinute, int maxTrackedKeys) {
+        return perMinute > 0 ? new TokenBucketLimiter(name, perMinute, maxTrackedKeys) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long acquireLoginByIp(String ip) {
+        return acquire(loginPerIp, ip);
+    }
+
+    public long acquireLoginByEmail(String email) {
+        return acquire(loginPerEmail, normalize(email));
+    }
+
+    public long acquireRegistrationByIp(String ip) {
+        return acquire(registerPerIp, ip);
+    }
+
+    public long acquireRegistrationByEmail(String email) {
+        return acquire(registerPerEmail, normalize(email));
+    }
+
+    private long acquire(TokenBucketLimiter limiter, String key) {
+        if (!enabled || limiter == null || key == null || key.isEmpty()) {
+            return 0;
+        }
+        return limiter.tryAcquire(key);
+    }
+
+    private String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    public List<TokenBucketLimiter> getLimiters() {
+        return Stream.of(loginPerIp, loginPerEmail, registerPerIp, registerPerEmail)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    // Drops refilled buckets and logs the counters of limits that turned requests away
+    @Scheduled(fixedDelayString = "${auth.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        for (TokenBucketLimiter limiter : getLimiters()) {
+            limiter.evictIdle();
+            TokenBucketLimiter.Stats stats = limiter.getStats();
+            long rejected = stats.getRejected().get();
+            if (stats.getLastLoggedRejected().getAndSet(rejected) != rejected) {
+                logger.info("Rate limit {}: {} allowed, {} rejected, {} untracked, {} keys tracked",
+                    limiter.getName(), stats.getAllowed().get(), rejected,
+                    stats.getUntracked().get(), limiter.getTrackedKeyCount());
+            }
+        }
+    }
+}
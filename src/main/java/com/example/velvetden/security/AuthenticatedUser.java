@@ -0,0 +1,23 @@
+package com.example.velvetden.security;
+
+import com.example.velvetden.entity.User;
+import lombok.Value;
+
+/**
+ * The signed-in user as kept in the security context: only what authorization and booking
+ * need, so authenticating a request does not load the full {@link User} row. Handlers that
+ * need the rest of the profile load it by {@link #getId()}. It is also what tokens carry in
+ * stateless mode, together with the {@code tokenVersion} they were issued with.
+ */
+@Value
+public class AuthenticatedUser {
+    Long id;
+    String email;
+    User.UserStatus status;
+    Boolean isAdmin;
+    Integer tokenVersion;
+
+    public boolean isApproved() {
+        return status == User.UserStatus.APPROVED;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.velvetden.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt on a dedicated pool sized to the CPUs, so a burst of logins or registrations can't
+ * take every core away from the request threads serving everything else. The pool's queue is
+ * bounded: once it is full, hashing fails fast with {@link PasswordHashingBusyException}
+ * rather than piling up waiting requests.
+ *
+ * The work factor is {@code strength}. Raising it makes {@link #upgradeEncoding(String)} report
+ * older hashes, which {@link RehashingAuthenticationProvider} then rehashes on the user's next
+ * login when the pool has room.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor executor;
+    private final Stats stats = new Stats();
+
+    @Getter
+    public static class Stats {
+        private final AtomicLong hashed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong lastLoggedHashed = new AtomicLong();
+    }
+
+    public BoundedPasswordEncoder(
+            @Value("${auth.password-hashing.strength:10}") int strength,
+            @Value("${auth.password-hashing.threads:0}") int threads,
+            @Value("${auth.password-hashing.queue-capacity:32}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // A rehash doubles the cost of that login, so it waits for a moment the pool is idle. The
+        // queue can still fill before the rehash is submitted; RehashingAuthenticationProvider
+        // then skips it
+        return bcrypt.upgradeEncoding(encodedPassword) && executor.getQueue().isEmpty();
+    }
+
+    /**
+     * Hashes on the calling thread, for bulk callers that bring their own bounded pool and
+     * should not compete with logins for this one's queue.
+     */
+    public String encodeDirectly(CharSequence rawPassword) {
+        return bcrypt.encode(rawPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            stats.rejected.incrementAndGet();
+            throw new PasswordHashingBusyException();
+        }
+
+        try {
+            T result = future.get();
+            stats.hashed.incrementAndGet();
+            return result;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void logStats() {
+        long hashed = stats.hashed.get();
+        if (stats.lastLoggedHashed.getAndSet(hashed) != hashed) {
+            logger.info("Password hashing: {} hashed, {} rejected, {} queued",
+                hashed, stats.rejected.get(), executor.getQueue().size());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.velvetden.security;
 
-import com.example.velvetden.entity.User;
-import com.example.velvetden.repository.UserRepository;
 import com.example.velvetden.service.JwtTokenValidator;
+import com.example.velvetden.service.PrincipalCache;
+import com.example.velvetden.service.TokenRevocations;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,22 +10,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenValidator jwtTokenValidator;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocations tokenRevocations;
 
     @Override
     protected void doFilterInternal(
@@ -49,35 +47,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // Validate token and extract email
-            String email = jwtTokenValidator.validateTokenAndGetEmail(jwt);
-            if (email != null) {
-                // Load user from database
-                User user = userRepository.findByEmail(email)
-                    .orElse(null);
+            // Validate token once; repeat requests with the same token are answered from the cache
+            JwtTokenValidator.VerifiedToken token = jwtTokenValidator.verify(jwt);
+            if (token != null && token.email() != null) {
+                AuthenticatedUser user;
+                if (tokenRevocations.isEnabled() && token.principal() != null) {
+                    // Stateless mode: the token itself is the principal, unless it has been revoked
+                    AuthenticatedUser claimed = token.principal();
+                    user = tokenRevocations.isRevoked(claimed.getId(), claimed.getTokenVersion()) ? null : claimed;
+                } else {
+                    // Lightweight principal, usually from the cache rather than the database
+                    user = principalCache.get(token.email());
+                }
                 
                 if (user != null) {
-                    // Extract authorities from token (space-separated string)
-                    String authoritiesStr = jwtTokenValidator.extractAuthorities(jwt);
-                    List<SimpleGrantedAuthority> grantedAuthorities;
-                    
-                    if (authoritiesStr != null && !authoritiesStr.trim().isEmpty()) {
-                        // Split space-separated authorities and convert to list
-                        grantedAuthorities = java.util.Arrays.stream(authoritiesStr.split("\\s+"))
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(java.util.stream.Collectors.toList());
-                    } else {
-                        // Default to ROLE_USER if no authorities found
-                        grantedAuthorities = Collections.singletonList(
-                            new SimpleGrantedAuthority("ROLE_USER")
-                    );
-                    }
-
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         user,
                         null,
-                        grantedAuthorities
+                        token.authorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     
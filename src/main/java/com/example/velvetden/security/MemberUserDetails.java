@@ -0,0 +1,24 @@
+package com.example.velvetden.security;
+
+import com.example.velvetden.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Spring Security's user details for login, keeping the member it was loaded from so the login
+ * response and token can be built without looking the user up again.
+ */
+public class MemberUserDetails extends org.springframework.security.core.userdetails.User {
+
+    private final transient User member;
+
+    public MemberUserDetails(User member, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(member.getEmail(), password, authorities);
+        this.member = member;
+    }
+
+    public User getMember() {
+        return member;
+    }
+}
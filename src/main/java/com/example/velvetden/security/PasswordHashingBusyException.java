@@ -0,0 +1,12 @@
+package com.example.velvetden.security;
+
+/**
+ * Thrown when the password hashing pool and its queue are full; the request should be
+ * answered with 503 so the client retries shortly instead of waiting.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("The server is busy, please try again in a moment");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.velvetden.security;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets by key (an IP or an email), each holding up to {@code capacity} tokens and
+ * refilling at {@code capacity} per minute. Keys are spread over lock stripes, so concurrent
+ * requests only contend when their keys share a stripe; a bucket is two fields, allocated on
+ * a key's first request and dropped by {@link #evictIdle()} once it has refilled.
+ *
+ * Tracking is bounded by {@code maxKeys}. When a stripe is full and none of its buckets have
+ * refilled, new keys are let through untracked rather than locking out legitimate users; the
+ * endpoints pair an email limit with a per-IP one, which still applies.
+ */
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 64;
+
+    @Getter
+    private final String name;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Stats stats = new Stats();
+
+    @Getter
+    public static class Stats {
+        private final AtomicLong allowed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong untracked = new AtomicLong();
+        private final AtomicLong lastLoggedRejected = new AtomicLong();
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAtNanos;
+    }
+
+    public TokenBucketLimiter(String name, int perMinute, int maxKeys) {
+        this.name = name;
+        this.capacity = perMinute;
+        this.tokensPerNano = perMinute / 60_000_000_000.0;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes a token for the key.
+     *
+     * @return 0 if the request may proceed, otherwise the seconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxKeysPerStripe && !evictIdle(stripe, now)) {
+                    stats.untracked.incrementAndGet();
+                    return 0;
+                }
+                bucket = new Bucket();
+                bucket.tokens = capacity;
+                bucket.refilledAtNanos = now;
+                stripe.buckets.put(key, bucket);
+            } else {
+                refill(bucket, now);
+            }
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                stats.allowed.incrementAndGet();
+                return 0;
+            }
+            stats.rejected.incrementAndGet();
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano / 1_000_000_000.0));
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely; a returning key starts full anyway.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evictIdle(stripe, now);
+            }
+        }
+    }
+
+    private boolean evictIdle(Stripe stripe, long now) {
+        boolean evicted = false;
+        Iterator<Bucket> buckets = stripe.buckets.values().iterator();
+        while (buckets.hasNext()) {
+            Bucket bucket = buckets.next();
+            refill(bucket, now);
+            if (bucket.tokens >= capacity) {
+                buckets.remove();
+                evicted = true;
+            }
+        }
+        return evicted;
+    }
+
+    private void refill(Bucket bucket, long now) {
+        bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAtNanos) * tokensPerNano);
+        bucket.refilledAtNanos = now;
+    }
+
+    public int getTrackedKeyCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.buckets.size();
+            }
+        }
+        return count;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.dto.SpaceAvailabilityDeltaDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pushes space availability changes to Server-Sent Events subscribers. Committed changes are
+ * collected per space and flushed every {@code flush-ms}, so a burst of bookings becomes one
+ * message per event. Each message is serialized once and written to every subscriber from the
+ * broadcaster's own thread; idle subscribers are async requests and hold no thread.
+ *
+ * Writes block on slow clients, so they run on a dedicated thread rather than the shared
+ * {@code @Scheduled} pool, where they would hold up hold expiry and the other periodic jobs.
+ * One thread keeps each subscriber's messages in order.
+ */
+@Component
+public class AvailabilityBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final long flushMillis;
+    private final long heartbeatMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<Long, Set<SseEmitter>> subscribersByEvent = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Boolean>> pendingByEvent = new ConcurrentHashMap<>(); // Event -> space -> available
+
+    public AvailabilityBroadcaster(
+            ObjectMapper objectMapper,
+            @Value("${booking.availability-stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${booking.availability-stream.flush-ms:250}") long flushMillis,
+            @Value("${booking.availability-stream.heartbeat-ms:30000}") long heartbeatMillis) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.flushMillis = flushMillis;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        executor.scheduleWithFixedDelay(guarded(this::flush), flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(guarded(this::heartbeat), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // An exception would cancel the periodic task for good
+    private Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Availability stream task failed: {}", e.getMessage(), e);
+            }
+        };
+    }
+
+    public SseEmitter subscribe(Long eventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Added under the map's lock, so it can't land in a set that unsubscribe() just dropped
+        subscribersByEvent.compute(eventId, (id, subscribers) -> {
+            Set<SseEmitter> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+
+        Runnable unsubscribe = () -> unsubscribe(eventId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    // Events nobody watches any more are dropped, so past events don't pile up
+    private void unsubscribe(Long eventId, SseEmitter emitter) {
+        subscribersByEvent.computeIfPresent(eventId, (id, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceAvailabilityChanged(SpaceAvailabilityChangedEvent event) {
+        if (!subscribersByEvent.containsKey(event.getEventId())) {
+            return;
+        }
+        // Only the latest state of a space within one flush window is sent. Added under the
+        // map's lock, so nothing lands in a batch that flush() has already taken
+        pendingByEvent.compute(event.getEventId(), (id, pending) -> {
+            Map<Long, Boolean> batch = pending != null ? pending : new HashMap<>();
+            batch.put(event.getSpaceId(), event.isAvailable());
+            return batch;
+        });
+    }
+
+    void flush() {
+        for (Long eventId : pendingByEvent.keySet()) {
+            Map<Long, Boolean> pending = pendingByEvent.remove(eventId);
+            Set<SseEmitter> subscribers = subscribersByEvent.get(eventId);
+            if (pending == null || pending.isEmpty() || subscribers == null || subscribers.isEmpty()) {
+                continue;
+            }
+
+            long version = versions.incrementAndGet();
+            List<SpaceAvailabilityDeltaDTO> deltas = new ArrayList<>();
+            pending.forEach((spaceId, available) ->
+                deltas.add(new SpaceAvailabilityDeltaDTO(spaceId, available, version)));
+
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(deltas);
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to serialize availability deltas for event {}: {}", eventId, e.getMessage());
+                continue;
+            }
+
+            send(eventId, subscribers, () -> SseEmitter.event()
+                .name("availability")
+                .id(String.valueOf(version))
+                .data(payload, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Keeps idle connections open through proxies and weeds out clients that went away
+    void heartbeat() {
+        subscribersByEvent.forEach((eventId, subscribers) ->
+            send(eventId, subscribers, () -> SseEmitter.event().comment("heartbeat")));
+    }
+
+    // Builders can only be built once, so each subscriber gets its own around the shared payload
+    private void send(Long eventId, Set<SseEmitter> subscribers, Supplier<SseEmitter.SseEventBuilder> message) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(message.get());
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(eventId, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.repository.SpaceRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory view of the slots of every open event. Booking attempts claim a slot here
+ * with a compare-and-set before any database work happens, so only the single winner
+ * per space goes on to write the {@code spaces} row; everyone else is rejected in memory.
+ *
+ * Events that are not tracked (e.g. past events) fall back to the database checks in
+ * {@link SpaceService}. Events are dropped from the ledger once they have started.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLedger.class);
+
+    private static final long FREE = 0L;
+
+    private final SpaceRepository spaceRepository;
+
+    private final Map<Long, EventSlots> slotsByEvent = new ConcurrentHashMap<>();
+    private final Map<Long, EventSlots> slotsBySpace = new ConcurrentHashMap<>();
+
+    public enum ClaimResult {
+        CLAIMED,
+        NOT_TRACKED,
+        SPACE_NOT_FOUND,
+        SPACE_TAKEN,
+        ALREADY_BOOKED
+    }
+
+    /**
+     * Tries to claim a space for the given user. A {@link ClaimResult#CLAIMED} result must
+     * either be persisted or handed back through {@link #release(Long, Long)}.
+     */
+    public ClaimResult claim(Long eventId, Long spaceId, Long userId) {
+        EventSlots slots = slotsByEvent.get(eventId);
+        if (slots == null) {
+            return ClaimResult.NOT_TRACKED;
+        }
+
+        int index = slots.indexOf(spaceId);
+        if (index < 0) {
+            return ClaimResult.SPACE_NOT_FOUND;
+        }
+
+        // One booking per user per event: the first claim for this user wins
+        if (slots.bookers.putIfAbsent(userId, spaceId) != null) {
+            return ClaimResult.ALREADY_BOOKED;
+        }
+
+        if (!slots.owners.compareAndSet(index, FREE, userId)) {
+            slots.bookers.remove(userId, spaceId);
+            return ClaimResult.SPACE_TAKEN;
+        }
+
+        return ClaimResult.CLAIMED;
+    }
+
+    /**
+     * Frees a space if it is still held by the given user. Unknown spaces are ignored.
+     */
+    public void release(Long spaceId, Long userId) {
+        if (spaceId == null || userId == null) {
+            return;
+        }
+
+        EventSlots slots = slotsBySpace.get(spaceId);
+        if (slots == null) {
+            return;
+        }
+
+        int index = slots.indexOf(spaceId);
+        if (index >= 0 && slots.owners.compareAndSet(index, userId, FREE)) {
+            slots.bookers.remove(userId, spaceId);
+        }
+    }
+
+    public boolean isTracked(Long eventId) {
+        return slotsByEvent.containsKey(eventId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceAvailabilityChanged(SpaceAvailabilityChangedEvent event) {
+        // Bookings are claimed here before they are written, so only releases need applying
+        if (event.isAvailable()) {
+            release(event.getSpaceId(), event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        if (slotsByEvent.containsKey(event.getEventId())) {
+            return;
+        }
+
+        // Rows are (spaceId, userId, dateTime); none if the event has already started
+        List<Object[]> rows = spaceRepository.findOpenSlotsByEventId(event.getEventId(), LocalDateTime.now());
+        if (!rows.isEmpty()) {
+            track(event.getEventId(), (LocalDateTime) rows.get(0)[2], rows);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Rows come back as (eventId, spaceId, userId, dateTime)
+        Map<Long, List<Object[]>> rowsByEvent = new HashMap<>();
+        Map<Long, LocalDateTime> startsByEvent = new HashMap<>();
+        for (Object[] row : spaceRepository.findSlotsOfEventsAfter(LocalDateTime.now())) {
+            rowsByEvent.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                .add(new Object[] { row[1], row[2] });
+            startsByEvent.put((Long) row[0], (LocalDateTime) row[3]);
+        }
+
+        rowsByEvent.forEach((eventId, rows) -> track(eventId, startsByEvent.get(eventId), rows));
+        logger.info("Booking ledger rebuilt with {} open events", rowsByEvent.size());
+    }
+
+    // Bookings for started events go through the database checks, so their slots can go
+    @Scheduled(fixedDelayString = "${booking.ledger.eviction-interval-ms:60000}")
+    public void evictStartedEvents() {
+        int evicted = evictEventsStartedBy(LocalDateTime.now());
+        if (evicted > 0) {
+            logger.info("Booking ledger dropped {} started events, {} still open", evicted, slotsByEvent.size());
+        }
+    }
+
+    int evictEventsStartedBy(LocalDateTime now) {
+        int evicted = 0;
+        for (Map.Entry<Long, EventSlots> entry : slotsByEvent.entrySet()) {
+            EventSlots slots = entry.getValue();
+            if (slots.startsAt.isAfter(now) || !slotsByEvent.remove(entry.getKey(), slots)) {
+                continue;
+            }
+            for (long spaceId : slots.spaceIds) {
+                slotsBySpace.remove(spaceId, slots);
+            }
+            evicted++;
+        }
+        return evicted;
+    }
+
+    private void track(Long eventId, LocalDateTime startsAt, List<Object[]> slotRows) {
+        // Only the first two columns are used: (spaceId, userId)
+        List<Object[]> rows = new ArrayList<>(slotRows);
+        EventSlots slots = new EventSlots(rows.size(), startsAt);
+        rows.sort((a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+        for (int i = 0; i < rows.size(); i++) {
+            Long spaceId = (Long) rows.get(i)[0];
+            Long userId = (Long) rows.get(i)[1];
+            slots.spaceIds[i] = spaceId;
+            if (userId != null) {
+                slots.owners.set(i, userId);
+                slots.bookers.put(userId, spaceId);
+            }
+        }
+
+        slotsByEvent.put(eventId, slots);
+        for (long spaceId : slots.spaceIds) {
+            slotsBySpace.put(spaceId, slots);
+        }
+    }
+
+    private static final class EventSlots {
+        private final long[] spaceIds; // Sorted, so slots can be found with a binary search
+        private final AtomicLongArray owners; // User id per slot, FREE if available
+        private final Map<Long, Long> bookers = new ConcurrentHashMap<>(); // User id -> space id
+        private final LocalDateTime startsAt; // Evicted from then on
+
+        private EventSlots(int size, LocalDateTime startsAt) {
+            this.spaceIds = new long[size];
+            this.owners = new AtomicLongArray(size);
+            this.startsAt = startsAt;
+        }
+
+        private int indexOf(Long spaceId) {
+            return spaceId != null ? Arrays.binarySearch(spaceIds, spaceId) : -1;
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.example.velvetden.service;
 
 import com.example.velvetden.entity.User;
 import com.example.velvetden.repository.UserRepository;
+import com.example.velvetden.security.MemberUserDetails;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,7 +17,7 @@ import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
     
@@ -36,16 +38,23 @@ public class CustomUserDetailsService implements UserDetailsService {
         );
         }
         
-        return new org.springframework.security.core.userdetails.User(
-            user.getEmail(),
-            user.getPassword(),
-            authorities
-        );
+        // Keeps the loaded user, so login doesn't have to look it up again
+        return new MemberUserDetails(user, user.getPassword(), authorities);
     }
     
-    public User loadUserEntityByUsername(String email) {
-        return userRepository.findByEmail(email)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+    /**
+     * Stores a password rehashed with the current work factor after a successful login.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        if (user instanceof MemberUserDetails memberDetails) {
+            memberDetails.getMember().setPassword(newPassword);
+            return new MemberUserDetails(memberDetails.getMember(), newPassword, user.getAuthorities());
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+            .password(newPassword)
+            .build();
     }
 }
 
@@ -1,6 +1,8 @@
 package com.example.velvetden.service;
 
+import com.example.velvetden.entity.Space;
 import com.example.velvetden.entity.User;
+import com.example.velvetden.repository.UserModerationRepository;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -13,6 +15,8 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -97,5 +101,82 @@ public class EmailService {
             }
         }).start();
     }
+    
+    public void sendLotteryWinNotification(User user, Space space) {
+        // Run email sending in a separate thread so the allocation pass is not held up
+        new Thread(() -> {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+                
+                helper.setFrom(adminEmail); // Set from address (required by Gmail)
+                helper.setTo(user.getEmail());
+                helper.setSubject("You got a space - " + space.getEvent().getCity());
+                
+                String emailBody = String.format(
+                    "Hi %s,\n\n" +
+                    "Good news: you have been allocated a space in the lottery.\n\n" +
+                    "Event: %s, %s\n" +
+                    "Space: %s\n\n" +
+                    "See your booking: %s",
+                    user.getFirstName(),
+                    space.getEvent().getCity(),
+                    space.getEvent().getDateTime(),
+                    space.getName(),
+                    frontendUrl
+                );
+                
+                helper.setText(emailBody);
+                
+                mailSender.send(message);
+                logger.info("Lottery win email sent to {} for space {}", user.getEmail(), space.getId());
+            } catch (Exception e) {
+                logger.error("Failed to send lottery win email to {}: {}", 
+                    user.getEmail(), e.getMessage());
+                // Don't throw - the allocation has already been committed
+            }
+        }).start();
+    }
+    
+    /**
+     * Tells members about a moderation decision. All messages are sent from one background
+     * thread over a single mail server connection.
+     */
+    public void sendModerationNotifications(List<UserModerationRepository.Moderated> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        
+        new Thread(() -> {
+            try {
+                List<MimeMessage> messages = new ArrayList<>();
+                for (UserModerationRepository.Moderated user : users) {
+                    if (user.email() == null || user.email().isEmpty()) {
+                        continue;
+                    }
+                    
+                    MimeMessage message = mailSender.createMimeMessage();
+                    MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+                    helper.setFrom(adminEmail); // Set from address (required by Gmail)
+                    helper.setTo(user.email());
+                    
+                    String decision = switch (user.status()) {
+                        case APPROVED -> "Your membership has been approved. You can now book spaces.";
+                        case REJECTED -> "Unfortunately, your membership application has not been approved.";
+                        case PICTURE_REQUESTED -> "We need a new verification picture from you. Please upload one from your profile.";
+                        default -> "Your membership status has changed.";
+                    };
+                    helper.setSubject("Your membership - The Velvet Den");
+                    helper.setText(String.format("Hi %s,\n\n%s\n\n%s", user.firstName(), decision, frontendUrl));
+                    messages.add(message);
+                }
+                
+                mailSender.send(messages.toArray(new MimeMessage[0]));
+                logger.info("Moderation emails sent to {} members", messages.size());
+            } catch (Exception e) {
+                logger.error("Failed to send moderation emails: {}", e.getMessage());
+                // Don't throw - the decisions have already been committed
+            }
+        }).start();
+    }
 }
-
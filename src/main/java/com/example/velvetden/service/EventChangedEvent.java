@@ -0,0 +1,13 @@
+package com.example.velvetden.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when an event is created or its details (e.g. cancellation) change.
+ */
+@Getter
+@AllArgsConstructor
+public class EventChangedEvent {
+    private final Long eventId;
+}
@@ -0,0 +1,109 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.entity.Space;
+import com.example.velvetden.repository.EventRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the full event and booking history for back-office reporting. Rows are read through
+ * a database cursor and written straight to the response, so memory use does not grow with
+ * the size of the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventExportService {
+
+    private final EventRepository eventRepository;
+    private final ExportRows exportRows;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * One JSON object per line and event, with its spaces nested.
+     */
+    public void writeNdjson(OutputStream out) {
+        exportRows.stream(eventRepository::streamHistory, rows -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            // Each event is written as its own root value, one per line
+            json.setRootValueSeparator(null);
+
+            Long currentEventId = null;
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                Long eventId = (Long) row[0];
+
+                if (!eventId.equals(currentEventId)) {
+                    if (currentEventId != null) {
+                        endEvent(json);
+                    }
+                    currentEventId = eventId;
+                    json.writeStartObject();
+                    json.writeNumberField("id", eventId);
+                    json.writeStringField("city", (String) row[1]);
+                    json.writeStringField("dateTime", String.valueOf(row[2]));
+                    json.writeBooleanField("cancelled", (Boolean) row[3]);
+                    json.writeArrayFieldStart("spaces");
+                }
+
+                if (row[4] != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", (Long) row[4]);
+                    json.writeStringField("name", (String) row[5]);
+                    json.writeStringField("color", row[6] != null ? ((Space.SpaceColor) row[6]).name() : null);
+                    json.writeStringField("bookedBy", (String) row[7]);
+                    json.writeEndObject();
+                }
+            }
+
+            if (currentEventId != null) {
+                endEvent(json);
+            }
+            json.flush();
+        });
+    }
+
+    /**
+     * One CSV line per space, with the event columns repeated on each line.
+     */
+    public void writeCsv(OutputStream out) {
+        exportRows.stream(eventRepository::streamHistory, rows -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write("eventId,city,dateTime,cancelled,spaceId,spaceName,color,bookedBy\n");
+
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                writer.write(String.valueOf(row[0]));
+                writer.write(',');
+                writer.write(ExportRows.csv((String) row[1]));
+                writer.write(',');
+                writer.write(String.valueOf(row[2]));
+                writer.write(',');
+                writer.write(String.valueOf(row[3]));
+                writer.write(',');
+                writer.write(row[4] != null ? String.valueOf(row[4]) : "");
+                writer.write(',');
+                writer.write(ExportRows.csv((String) row[5]));
+                writer.write(',');
+                writer.write(row[6] != null ? ((Space.SpaceColor) row[6]).name() : "");
+                writer.write(',');
+                writer.write(ExportRows.csv((String) row[7]));
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+    }
+
+    private void endEvent(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
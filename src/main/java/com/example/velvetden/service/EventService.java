@@ -1,17 +1,24 @@
 package com.example.velvetden.service;
 
 import com.example.velvetden.dto.EventDTO;
+import com.example.velvetden.dto.EventPageDTO;
 import com.example.velvetden.dto.SpaceDTO;
 import com.example.velvetden.entity.Event;
 import com.example.velvetden.entity.Space;
 import com.example.velvetden.entity.SpaceTemplate;
 import com.example.velvetden.repository.EventRepository;
+import com.example.velvetden.repository.SpaceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -19,11 +26,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class EventService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final EventRepository eventRepository;
+    private final SpaceRepository spaceRepository;
     private final SpaceTemplateService spaceTemplateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
     
     @Transactional(readOnly = true)
     public EventDTO getUpcomingEvent() {
+        return findUpcomingEvent()
+            .orElseThrow(() -> new RuntimeException("No upcoming event found"));
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<EventDTO> findUpcomingEvent() {
         LocalDateTime now = LocalDateTime.now();
         
         // Get the earliest cancelled upcoming event (before its date/time passes)
@@ -43,32 +63,38 @@ public class EventService {
             
             // If they're at the same date/time, prioritize non-cancelled
             if (cancelled.getDateTime().equals(nonCancelled.getDateTime())) {
-                return convertToDTO(nonCancelled);
+                return Optional.of(convertToDTO(nonCancelled));
             }
             
             // Otherwise, show whichever is earlier
             if (cancelled.getDateTime().isBefore(nonCancelled.getDateTime())) {
-                return convertToDTO(cancelled);
+                return Optional.of(convertToDTO(cancelled));
             } else {
-                return convertToDTO(nonCancelled);
+                return Optional.of(convertToDTO(nonCancelled));
             }
         }
         
         // If only cancelled event exists, show it
         if (cancelledEvent.isPresent()) {
-            return convertToDTO(cancelledEvent.get());
+            return Optional.of(convertToDTO(cancelledEvent.get()));
         }
         
         // If only non-cancelled event exists, show it
         if (nonCancelledEvent.isPresent()) {
-            return convertToDTO(nonCancelledEvent.get());
+            return Optional.of(convertToDTO(nonCancelledEvent.get()));
         }
         
-        throw new RuntimeException("No upcoming event found");
+        return Optional.empty();
     }
     
     private EventDTO convertToDTO(Event event) {
-        List<SpaceDTO> spaceDTOs = event.getSpaces().stream()
+        return convertToDTO(event, spaceRepository.findViewsByEventIdIn(List.of(event.getId())));
+    }
+    
+    // Built from projection rows rather than event.getSpaces(), so the spaces, templates and
+    // bookers of any number of events are read in one query
+    private EventDTO convertToDTO(Event event, List<SpaceRepository.SpaceView> spaces) {
+        List<SpaceDTO> spaceDTOs = spaces.stream()
             .map(this::convertSpaceToDTO)
             .collect(Collectors.toList());
         
@@ -80,31 +106,101 @@ public class EventService {
         dto.setAvailableSpacesCount(event.getAvailableSpacesCount());
         dto.setTotalSpacesCount(event.getTotalSpacesCount());
         dto.setCancelled(event.isCancelled());
+        dto.setBookingMode(event.getBookingMode().name());
+        dto.setLotteryClosesAt(event.getLotteryClosesAt());
         
         return dto;
     }
     
-    private SpaceDTO convertSpaceToDTO(Space space) {
+    private SpaceDTO convertSpaceToDTO(SpaceRepository.SpaceView space) {
         SpaceDTO dto = new SpaceDTO();
         dto.setId(space.getId());
         dto.setName(space.getName());
         Space.SpaceColor color = space.getColor();
         dto.setColor(color != null ? color.name() : null);
-        dto.setAvailable(space.isAvailable());
-        dto.setBookedBy(space.getUser() != null ? space.getUser().getEmail() : null);
+        dto.setAvailable(space.getBookedBy() == null);
+        dto.setHeld(space.getBookedBy() != null && space.getHoldExpiresAt() != null);
+        dto.setBookedBy(space.getBookedBy());
         return dto;
     }
     
-    @Transactional(readOnly = true)
-    public List<EventDTO> getAllEvents() {
-        List<Event> events = eventRepository.findAllByOrderByDateTimeDesc();
-        return events.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+    /**
+     * One page of events. {@code version} is the events version the caller read before asking
+     * (see {@link ResponseVersions#eventsETag()}); concurrent calls only share a load when they
+     * read the same version, so a caller that saw a change never joins a load started before it.
+     * Not @Transactional: callers that join an in-flight load should not hold a connection while waiting.
+     */
+    public EventPageDTO getEventsPage(
+            String version,
+            String cursor,
+            Integer size,
+            String city,
+            LocalDateTime from,
+            LocalDateTime to,
+            Boolean cancelled) {
+        
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        EventCursor after = cursor != null && !cursor.isBlank() ? EventCursor.decode(cursor) : null;
+        String key = String.join("|", version, String.valueOf(cursor), String.valueOf(pageSize), String.valueOf(city),
+            String.valueOf(from), String.valueOf(to), String.valueOf(cancelled));
+        
+        return singleFlight.execute("events.page", key, () -> transactionTemplate.execute(status -> {
+            // One extra row tells whether there is a next page
+            List<Event> page = eventRepository.findPage(
+                city, from, to, cancelled,
+                after != null ? after.dateTime() : null,
+                after != null ? after.id() : null,
+                pageSize + 1);
+            boolean hasMore = page.size() > pageSize;
+            List<Event> pageEvents = hasMore ? page.subList(0, pageSize) : page;
+            
+            // The spaces of the whole page in one projection query
+            Map<Long, List<SpaceRepository.SpaceView>> spacesByEvent = pageEvents.isEmpty()
+                ? Map.of()
+                : spaceRepository.findViewsByEventIdIn(pageEvents.stream().map(Event::getId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.groupingBy(SpaceRepository.SpaceView::getEventId));
+            List<EventDTO> events = pageEvents.stream()
+                .map(event -> convertToDTO(event, spacesByEvent.getOrDefault(event.getId(), List.of())))
+                .collect(Collectors.toList());
+            
+            String nextCursor = null;
+            if (hasMore && !events.isEmpty()) {
+                EventDTO last = events.get(events.size() - 1);
+                nextCursor = new EventCursor(last.getDateTime(), last.getId()).encode();
+            }
+            return new EventPageDTO(events, nextCursor);
+        }));
+    }
+    
+    // Opaque keyset position: the (dateTime, id) of the last event on a page
+    private record EventCursor(LocalDateTime dateTime, Long id) {
+        
+        String encode() {
+            String raw = dateTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static EventCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new EventCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
     }
     
     @Transactional
-    public EventDTO createEvent(String city, LocalDateTime dateTime, List<Long> spaceTemplateIds) {
+    public EventDTO createEvent(
+            String city,
+            LocalDateTime dateTime,
+            List<Long> spaceTemplateIds,
+            String bookingMode,
+            LocalDateTime lotteryClosesAt) {
         if (spaceTemplateIds == null || spaceTemplateIds.isEmpty()) {
             throw new IllegalArgumentException("At least one space template must be selected");
         }
@@ -113,6 +209,24 @@ public class EventService {
             throw new IllegalArgumentException("Maximum 6 spaces allowed per event");
         }
         
+        Event.BookingMode mode = Event.BookingMode.FIRST_COME;
+        if (bookingMode != null && !bookingMode.isEmpty()) {
+            try {
+                mode = Event.BookingMode.valueOf(bookingMode.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid booking mode: " + bookingMode);
+            }
+        }
+        
+        if (mode == Event.BookingMode.LOTTERY) {
+            if (lotteryClosesAt == null) {
+                throw new IllegalArgumentException("Lottery events need a lottery close time");
+            }
+            if (!lotteryClosesAt.isBefore(dateTime)) {
+                throw new IllegalArgumentException("The lottery must close before the event starts");
+            }
+        }
+        
         // Fetch space templates
         List<SpaceTemplate> templates = spaceTemplateService.getTemplatesByIds(spaceTemplateIds);
         
@@ -124,6 +238,8 @@ public class EventService {
         event.setCity(city);
         event.setDateTime(dateTime);
         event.setUpcoming(dateTime.isAfter(LocalDateTime.now()));
+        event.setBookingMode(mode);
+        event.setLotteryClosesAt(mode == Event.BookingMode.LOTTERY ? lotteryClosesAt : null);
         
         // Create spaces from templates
         for (SpaceTemplate template : templates) {
@@ -134,6 +250,7 @@ public class EventService {
         }
         
         Event savedEvent = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChangedEvent(savedEvent.getId()));
         return convertToDTO(savedEvent);
     }
     
@@ -144,6 +261,7 @@ public class EventService {
         
         event.setCancelled(true);
         Event savedEvent = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChangedEvent(savedEvent.getId()));
         return convertToDTO(savedEvent);
     }
     
@@ -0,0 +1,55 @@
+package com.example.velvetden.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Shared plumbing of the back-office exports: scrolls a row query inside a transaction and
+ * hands the rows to a writer, and escapes CSV fields.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportRows {
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Opens the query's cursor, which only stays open inside a transaction, and passes its rows
+     * to the writer. Rows should be scalars, so nothing builds up in the persistence context
+     * while scrolling.
+     */
+    public void stream(Supplier<Stream<Object[]>> query, RowWriter writer) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> stream = query.get()) {
+                writer.write(stream.iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * A CSV field: quoted when it contains a separator, quote or line break, empty for null.
+     */
+    public static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface RowWriter {
+        void write(Iterator<Object[]> rows) throws IOException;
+    }
+}
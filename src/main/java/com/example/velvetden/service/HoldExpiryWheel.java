@@ -0,0 +1,82 @@
+package com.example.velvetden.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel of hold expiries. Each hold is dropped into the bucket of the tick it
+ * expires on, and every {@link #advance()} only looks at the buckets that have come due since
+ * the previous call, so expiring holds costs nothing per hold until its bucket comes round.
+ *
+ * Holds that are confirmed or cancelled stay in the wheel; releasing them is a no-op because
+ * the release statement only matches holds that are still pending.
+ */
+@Component
+public class HoldExpiryWheel {
+
+    private static final int WHEEL_SIZE = 512; // Buckets; one lap covers WHEEL_SIZE ticks
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final List<Queue<Hold>> buckets = new ArrayList<>(WHEEL_SIZE);
+    private long processedTick;
+
+    public HoldExpiryWheel(@Value("${booking.hold.tick-ms:1000}") long tickMillis) {
+        this.tickNanos = tickMillis * 1_000_000L;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hold {
+        private final Long spaceId;
+        private final Long userId;
+        private final long deadlineTick;
+    }
+
+    // Synchronized with advance(): otherwise a hold could read processedTick just before a sweep
+    // passes its bucket, and land behind it for a whole lap
+    public synchronized void schedule(Long spaceId, Long userId, LocalDateTime expiresAt) {
+        long delayNanos = Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+        long deadlineTick = (System.nanoTime() - startNanos + delayNanos + tickNanos - 1) / tickNanos;
+        // Never schedule into a bucket that has already been processed for this lap
+        long tick = Math.max(deadlineTick, processedTick + 1);
+        buckets.get((int) (tick % WHEEL_SIZE)).add(new Hold(spaceId, userId, tick));
+    }
+
+    /**
+     * Collects the holds whose deadline has passed since the previous call.
+     */
+    public synchronized List<Hold> advance() {
+        long currentTick = (System.nanoTime() - startNanos) / tickNanos;
+        List<Hold> expired = new ArrayList<>();
+
+        // After a long pause every bucket is due, but each only needs visiting once
+        long fromTick = Math.max(processedTick + 1, currentTick - WHEEL_SIZE + 1);
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            Iterator<Hold> iterator = buckets.get((int) (tick % WHEEL_SIZE)).iterator();
+            while (iterator.hasNext()) {
+                Hold hold = iterator.next();
+                if (hold.deadlineTick <= currentTick) {
+                    expired.add(hold);
+                    iterator.remove();
+                }
+            }
+        }
+
+        processedTick = Math.max(processedTick, currentTick);
+        return expired;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.velvetden.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of requests sent with an {@code Idempotency-Key} header, so a
+ * client retry gets the original response back without running the request again. A retry
+ * that arrives while the original is still running waits for its result. Reusing a key for a
+ * different request body is refused with {@link KeyReusedException}.
+ *
+ * Entries live in memory only, bounded by {@code max-entries} and expired after {@code ttl-seconds}.
+ * Requests still running are never evicted, so a retry can't slip past one and run it twice.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(); // Insertion order, so the oldest entries come first
+
+    /**
+     * Thrown when a key is sent again with a different request body.
+     */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException() {
+            super("This Idempotency-Key was already used for a different request");
+        }
+    }
+
+    public IdempotencyCache(
+            @Value("${booking.idempotency.ttl-seconds:600}") long ttlSeconds,
+            @Value("${booking.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Runs the action once per key and replays its response for later calls with the same key
+     * and {@code fingerprint} (e.g. the request body). Only successful responses are kept: failed
+     * actions and 4xx/5xx responses are forgotten, so the client can retry them.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        Entry mine = new Entry(System.nanoTime(), fingerprint);
+        Entry existing;
+        synchronized (entries) {
+            evict(mine.createdNanos);
+            existing = entries.putIfAbsent(key, mine);
+        }
+
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new KeyReusedException();
+            }
+            ResponseEntity<T> original;
+            try {
+                original = (ResponseEntity<T>) existing.response.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            if (response.getStatusCode().isError()) {
+                forget(key, mine);
+            }
+            mine.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            forget(key, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void forget(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    // Drops expired entries, then the oldest ones while over the limit; running requests stay
+    private void evict(long now) {
+        int excess = entries.size() + 1 - maxEntries;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            boolean expired = now - entry.createdNanos >= ttlNanos;
+            if (!expired && excess <= 0) {
+                break; // Everything after this one is newer
+            }
+            if (entry.response.isDone()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long createdNanos;
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Entry(long createdNanos, String fingerprint) {
+            this.createdNanos = createdNanos;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
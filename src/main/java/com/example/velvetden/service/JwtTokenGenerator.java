@@ -1,5 +1,6 @@
 package com.example.velvetden.service;
 
+import com.example.velvetden.security.AuthenticatedUser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -43,7 +44,11 @@ public class JwtTokenGenerator {
         return Keys.hmacShaKeyFor(finalKey);
     }
     
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Besides the subject and authorities, the token carries the user's id, status, admin flag
+     * and token version, so stateless mode can authorize requests from the token alone.
+     */
+    public String generateToken(UserDetails userDetails, AuthenticatedUser user) {
         String authorities = userDetails.getAuthorities().stream()
             .map(GrantedAuthority::getAuthority)
             .collect(Collectors.joining(" "));
@@ -53,6 +58,10 @@ public class JwtTokenGenerator {
         return Jwts.builder()
             .subject(userDetails.getUsername())
             .claim("authorities", authorities)
+            .claim("user_id", user.getId())
+            .claim("status", user.getStatus().name())
+            .claim("admin", Boolean.TRUE.equals(user.getIsAdmin()))
+            .claim("token_version", user.getTokenVersion())
             .issuer("the-velvet-den")
             .issuedAt(new Date())
             .expiration(new Date(System.currentTimeMillis() + expiration))
@@ -1,20 +1,79 @@
 package com.example.velvetden.service;
 
+import com.example.velvetden.entity.User;
+import com.example.velvetden.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+/**
+ * Verifies bearer tokens. The signing key and parser are built once, and verified tokens are
+ * remembered (by SHA-256 digest, never the token itself) until they expire, so repeat requests
+ * with the same token skip the signature check. The cache is bounded by {@code max-entries};
+ * when it is full, the tokens closest to expiring make room for new ones.
+ */
 @Service
 public class JwtTokenValidator {
     
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenValidator.class);
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxCachedTokens;
+    
+    private JwtParser parser;
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+    private final Stats stats = new Stats();
+    
+    /**
+     * {@code principal} is built from the token's user claims, or null for tokens issued
+     * without them.
+     */
+    public record VerifiedToken(
+            String email, List<SimpleGrantedAuthority> authorities, AuthenticatedUser principal, long expiresAtMillis) {
+    }
+    
+    @Getter
+    public static class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evicted = new AtomicLong();
+        private final AtomicLong lastLoggedMisses = new AtomicLong();
+    }
+    
+    @PostConstruct
+    void init() {
+        parser = Jwts.parser()
+            .verifyWith(getSigningKey())
+            .build();
+    }
+    
     private SecretKey getSigningKey() {
         // Use the same key generation logic as JwtTokenGenerator
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
@@ -34,32 +93,135 @@ public class JwtTokenValidator {
         return Keys.hmacShaKeyFor(finalKey);
     }
     
-    public String validateTokenAndGetEmail(String token) {
+    /**
+     * Parses and verifies the token once, returning its subject and authorities, or null if
+     * it is invalid or expired.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        
+        VerifiedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                stats.hits.incrementAndGet();
+                return cached;
+            }
+            verified.remove(digest, cached);
+        }
+        stats.misses.incrementAndGet();
+        
+        Claims claims;
         try {
-            Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-            
-            return claims.getSubject();
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             return null;
         }
+        
+        Date expiration = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(
+            claims.getSubject(),
+            parseAuthorities(claims.get("authorities", String.class)),
+            parsePrincipal(claims),
+            expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        if (expiration != null) {
+            if (verified.size() >= maxCachedTokens) {
+                makeRoom(now);
+            }
+            verified.put(digest, result);
+        }
+        return result;
+    }
+    
+    // Drops expired tokens, then the tenth of the cache closest to expiring, so the scan runs
+    // once per many new tokens rather than on every one
+    private synchronized void makeRoom(long now) {
+        if (verified.size() < maxCachedTokens) {
+            return;
+        }
+        int before = verified.size();
+        verified.values().removeIf(token -> token.expiresAtMillis() <= now);
+        int excess = verified.size() - maxCachedTokens + Math.max(1, maxCachedTokens / 10);
+        if (excess > 0) {
+            verified.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(VerifiedToken::expiresAtMillis)))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(verified::remove);
+        }
+        stats.evicted.addAndGet(before - verified.size());
+    }
+    
+    public String validateTokenAndGetEmail(String token) {
+        VerifiedToken verifiedToken = verify(token);
+        return verifiedToken != null ? verifiedToken.email() : null;
     }
     
     public String extractAuthorities(String token) {
+        VerifiedToken verifiedToken = verify(token);
+        return verifiedToken != null
+            ? verifiedToken.authorities().stream().map(SimpleGrantedAuthority::getAuthority).collect(Collectors.joining(" "))
+            : null;
+    }
+    
+    private List<SimpleGrantedAuthority> parseAuthorities(String authorities) {
+        if (authorities == null || authorities.trim().isEmpty()) {
+            // Default to ROLE_USER if no authorities found
+            return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        // Space-separated authorities
+        return Arrays.stream(authorities.trim().split("\\s+"))
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toUnmodifiableList());
+    }
+    
+    private AuthenticatedUser parsePrincipal(Claims claims) {
+        Long userId = claims.get("user_id", Long.class);
+        String status = claims.get("status", String.class);
+        Integer tokenVersion = claims.get("token_version", Integer.class);
+        if (userId == null || status == null || tokenVersion == null) {
+            return null;
+        }
         try {
-            Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-            
-            return claims.get("authorities", String.class);
-        } catch (Exception e) {
+            return new AuthenticatedUser(
+                userId,
+                claims.getSubject(),
+                User.UserStatus.valueOf(status),
+                Boolean.TRUE.equals(claims.get("admin", Boolean.class)),
+                tokenVersion);
+        } catch (IllegalArgumentException e) {
             return null;
         }
     }
+    
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public Stats getStats() {
+        return stats;
+    }
+    
+    public int getCachedTokenCount() {
+        return verified.size();
+    }
+    
+    // Drops expired tokens and logs the cache counters when there was new traffic
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(token -> token.expiresAtMillis() <= now);
+        
+        long misses = stats.misses.get();
+        if (stats.lastLoggedMisses.getAndSet(misses) != misses) {
+            logger.info("Verified-token cache: {} hits, {} misses, {} evicted, {} cached",
+                stats.hits.get(), misses, stats.evicted.get(), verified.size());
+        }
+    }
 }
-
@@ -0,0 +1,340 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.entity.Event;
+import com.example.velvetden.entity.Space;
+import com.example.velvetden.repository.BookingIntentRepository;
+import com.example.velvetden.repository.EventRepository;
+import com.example.velvetden.repository.SpaceRepository;
+import com.example.velvetden.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Booking for {@link Event.BookingMode#LOTTERY} events. While the lottery is open, booking
+ * requests are only recorded as intents in memory and written to {@code booking_intents} in
+ * batches. Once it closes, a single allocation pass draws the intents in random order and
+ * assigns the spaces in one transaction, keeping the one-booking-per-user-per-event rule.
+ * Each winner gets the space they asked for if it is still free, otherwise another free one.
+ */
+@Service
+@RequiredArgsConstructor
+public class LotteryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotteryService.class);
+
+    private final EventRepository eventRepository;
+    private final SpaceRepository spaceRepository;
+    private final BookingIntentRepository bookingIntentRepository;
+    private final BookingLedger bookingLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailService emailService;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<Long, LotteryWindow> windowsByEvent = new ConcurrentHashMap<>();
+    private final Queue<long[]> pendingIntents = new ConcurrentLinkedQueue<>(); // (eventId, spaceId, userId)
+
+    public enum Phase {
+        NONE, // Not a lottery event, or already allocated: normal booking applies
+        COLLECTING,
+        ALLOCATING // Closed, waiting for the allocation pass
+    }
+
+    public Phase phase(Long eventId) {
+        LotteryWindow window = windowsByEvent.get(eventId);
+        if (window == null) {
+            return Phase.NONE;
+        }
+        return window.isOpen() ? Phase.COLLECTING : Phase.ALLOCATING;
+    }
+
+    /**
+     * Records the user's booking intent for the event's lottery. Only the first intent per
+     * user counts.
+     */
+    public void enter(Long eventId, Long spaceId, AuthenticatedUser user) {
+        if (!user.isApproved()) {
+            throw new RuntimeException("Only approved users can book spaces");
+        }
+
+        if (spaceId == null) {
+            throw new IllegalArgumentException("Space ID cannot be null");
+        }
+
+        LotteryWindow window = windowsByEvent.get(eventId);
+        if (window == null) {
+            throw new RuntimeException("The lottery for this event is closed");
+        }
+
+        if (!window.spaceIds.contains(spaceId)) {
+            throw new RuntimeException("Space not found");
+        }
+
+        // Checked and queued under the window's lock, so no intent is queued after the
+        // allocation pass has sealed the window and flushed
+        synchronized (window) {
+            if (window.sealed || !window.isOpen()) {
+                throw new RuntimeException("The lottery for this event is closed");
+            }
+            if (!window.entrants.add(user.getId())) {
+                throw new RuntimeException("You have already entered the lottery for this event");
+            }
+            pendingIntents.add(new long[] { eventId, spaceId, user.getId() });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.lottery.flush-interval-ms:1000}")
+    public void flushIntents() {
+        flushPendingIntents();
+    }
+
+    /**
+     * Synchronized so the allocation pass can't draw while a scheduled flush is still writing.
+     *
+     * @return false if the intents could not be written and were queued again
+     */
+    private synchronized boolean flushPendingIntents() {
+        List<long[]> batch = new ArrayList<>();
+        long[] intent;
+        while ((intent = pendingIntents.poll()) != null) {
+            // Intents of lotteries that were allocated or cancelled in the meantime are dropped
+            if (windowsByEvent.containsKey(intent[0])) {
+                batch.add(intent);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try {
+            bookingIntentRepository.saveAll(batch, LocalDateTime.now());
+            return true;
+        } catch (RuntimeException e) {
+            // Keep the intents for the next flush rather than losing entries
+            logger.error("Failed to persist {} lottery intents: {}", batch.size(), e.getMessage());
+            pendingIntents.addAll(batch);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.lottery.allocation-interval-ms:5000}")
+    public void allocateClosedLotteries() {
+        List<Long> closed = windowsByEvent.entrySet().stream()
+            .filter(entry -> !entry.getValue().isOpen())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+
+        if (closed.isEmpty()) {
+            return;
+        }
+
+        // Intents still buffered in memory take part in the draw. Sealed first, so none are
+        // added after the flush; if it fails, the draw waits for the next pass
+        closed.forEach(eventId -> {
+            LotteryWindow window = windowsByEvent.get(eventId);
+            if (window != null) {
+                synchronized (window) {
+                    window.sealed = true;
+                }
+            }
+        });
+        if (!flushPendingIntents()) {
+            return;
+        }
+        closed.forEach(this::allocate);
+    }
+
+    private void allocate(Long eventId) {
+        List<long[]> claimed = new ArrayList<>(); // (spaceId, userId) held in the booking ledger
+        List<Space> winners;
+        try {
+            winners = transactionTemplate.execute(status -> drawAndAssign(eventId, claimed));
+        } catch (RuntimeException e) {
+            claimed.forEach(claim -> bookingLedger.release(claim[0], claim[1]));
+            logger.error("Lottery allocation failed for event {}: {}", eventId, e.getMessage());
+            return; // Retried on the next pass
+        }
+
+        windowsByEvent.remove(eventId);
+        logger.info("Lottery for event {} allocated {} spaces", eventId, winners.size());
+
+        for (Space space : winners) {
+            emailService.sendLotteryWinNotification(space.getUser(), space);
+        }
+    }
+
+    private List<Space> drawAndAssign(Long eventId, List<long[]> claimed) {
+        Event event = eventRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            return Collections.emptyList();
+        }
+
+        List<long[]> intents = new ArrayList<>(bookingIntentRepository.findByEventId(eventId));
+        Collections.shuffle(intents, random);
+
+        // Slot rows are (spaceId, userId); free spaces are handed out in random order
+        List<Object[]> slots = spaceRepository.findSlotsByEventId(eventId);
+        List<Long> free = slots.stream()
+            .filter(slot -> slot[1] == null)
+            .map(slot -> (Long) slot[0])
+            .collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(free, random);
+        Set<Long> freeSpaceIds = new LinkedHashSet<>(free);
+        Set<Long> bookedUserIds = slots.stream()
+            .filter(slot -> slot[1] != null)
+            .map(slot -> (Long) slot[1])
+            .collect(Collectors.toCollection(HashSet::new));
+
+        Map<Long, Long> winningSpaceByUser = new HashMap<>();
+        for (long[] intent : intents) {
+            if (freeSpaceIds.isEmpty()) {
+                break;
+            }
+            long userId = intent[1];
+            if (bookedUserIds.contains(userId)) {
+                continue;
+            }
+
+            // The space they asked for if it is still free, otherwise the next free one
+            while (!freeSpaceIds.isEmpty()) {
+                Long spaceId = freeSpaceIds.contains(intent[0]) ? intent[0] : freeSpaceIds.iterator().next();
+                freeSpaceIds.remove(spaceId);
+                String outcome = assign(eventId, spaceId, userId, claimed);
+                if ("BOOKED".equals(outcome)) {
+                    winningSpaceByUser.put(userId, spaceId);
+                    bookedUserIds.add(userId);
+                    break;
+                }
+                if ("ALREADY_BOOKED".equals(outcome)) {
+                    freeSpaceIds.add(spaceId); // Still free for the next entrant
+                    break;
+                }
+                // Taken in the meantime: try the next free space
+            }
+        }
+
+        event.setLotteryAllocated(true);
+        bookingIntentRepository.deleteByEventId(eventId);
+
+        winningSpaceByUser.forEach((userId, spaceId) ->
+            eventPublisher.publishEvent(new SpaceAvailabilityChangedEvent(eventId, spaceId, userId, false)));
+
+        // Loaded with template, event and user, since the winners are emailed after commit
+        Set<Long> winningSpaceIds = new HashSet<>(winningSpaceByUser.values());
+        return spaceRepository.findByEventId(eventId).stream()
+            .filter(space -> winningSpaceIds.contains(space.getId()))
+            .collect(Collectors.toList());
+    }
+
+    // Books through the same conditional statement as first-come booking, so the space and
+    // one-booking-per-event checks and the event's counter are all handled by the database
+    private String assign(Long eventId, Long spaceId, long userId, List<long[]> claimed) {
+        BookingLedger.ClaimResult claim = bookingLedger.claim(eventId, spaceId, userId);
+        switch (claim) {
+            case ALREADY_BOOKED -> {
+                return "ALREADY_BOOKED";
+            }
+            case SPACE_TAKEN, SPACE_NOT_FOUND -> {
+                return "SPACE_TAKEN";
+            }
+            case CLAIMED -> claimed.add(new long[] { spaceId, userId });
+            default -> {
+                // NOT_TRACKED relies on the database checks alone
+            }
+        }
+
+        String outcome = spaceRepository.bookIfAvailable(eventId, spaceId, userId, null);
+        if (!"BOOKED".equals(outcome) && claim == BookingLedger.ClaimResult.CLAIMED) {
+            bookingLedger.release(spaceId, userId);
+            claimed.removeIf(entry -> entry[0] == spaceId && entry[1] == userId);
+        }
+        return outcome;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        Event changed = eventRepository.findById(event.getEventId()).orElse(null);
+        if (changed == null || changed.isCancelled() || !isPendingLottery(changed)) {
+            if (windowsByEvent.remove(event.getEventId()) != null) {
+                // No draw will read them any more
+                bookingIntentRepository.deleteByEventId(event.getEventId());
+            }
+        } else if (!windowsByEvent.containsKey(changed.getId())) {
+            track(changed);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int settled = bookingIntentRepository.deleteSettled();
+        if (settled > 0) {
+            logger.info("Removed {} intents of allocated or cancelled lotteries", settled);
+        }
+        List<Event> lotteries = eventRepository.findByBookingModeAndLotteryAllocatedFalse(Event.BookingMode.LOTTERY);
+        lotteries.stream()
+            .filter(event -> !event.isCancelled())
+            .forEach(this::track);
+        logger.info("Tracking {} pending lotteries", windowsByEvent.size());
+    }
+
+    private boolean isPendingLottery(Event event) {
+        return event.getBookingMode() == Event.BookingMode.LOTTERY
+            && !event.isLotteryAllocated()
+            && event.getLotteryClosesAt() != null;
+    }
+
+    private void track(Event event) {
+        if (!isPendingLottery(event)) {
+            return;
+        }
+
+        // Slot rows are (spaceId, userId)
+        Set<Long> spaceIds = spaceRepository.findSlotsByEventId(event.getId()).stream()
+            .map(row -> (Long) row[0])
+            .collect(Collectors.toSet());
+
+        LotteryWindow window = new LotteryWindow(event.getLotteryClosesAt(), spaceIds);
+        window.entrants.addAll(bookingIntentRepository.findUserIdsByEventId(event.getId()));
+        windowsByEvent.put(event.getId(), window);
+    }
+
+    private static final class LotteryWindow {
+        private final LocalDateTime closesAt;
+        private final Set<Long> spaceIds;
+        private final Set<Long> entrants = ConcurrentHashMap.newKeySet(); // User ids with an intent
+        private boolean sealed; // Set under the window's lock once the draw has started
+
+        private LotteryWindow(LocalDateTime closesAt, Set<Long> spaceIds) {
+            this.closesAt = closesAt;
+            this.spaceIds = spaceIds;
+        }
+
+        private boolean isOpen() {
+            return LocalDateTime.now().isBefore(closesAt);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.entity.User;
+import com.example.velvetden.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the member list with booking counts for back-office exports. Like
+ * {@link EventExportService}, rows come from one database cursor and go straight to the
+ * response, so memory use does not grow with the number of members.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final String[] COLUMNS = {
+        "id", "email", "firstName", "lastName", "status", "createdAt", "age", "location",
+        "height", "size", "adminComments", "bookedSpacesCount"
+    };
+
+    private final UserRepository userRepository;
+    private final ExportRows exportRows;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * One JSON object per line and member.
+     */
+    public void writeNdjson(OutputStream out) {
+        exportRows.stream(userRepository::streamForExport, rows -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.setRootValueSeparator(null);
+
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                json.writeStartObject();
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    json.writeFieldName(COLUMNS[i]);
+                    Object value = value(row[i]);
+                    if (value == null) {
+                        json.writeNull();
+                    } else if (value instanceof Number number) {
+                        json.writeNumber(number.longValue());
+                    } else {
+                        json.writeString(value.toString());
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+            json.flush();
+        });
+    }
+
+    /**
+     * One CSV line per member.
+     */
+    public void writeCsv(OutputStream out) {
+        exportRows.stream(userRepository::streamForExport, rows -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    Object value = value(row[i]);
+                    writer.write(value != null ? ExportRows.csv(value.toString()) : "");
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+    }
+
+    private Object value(Object column) {
+        return column instanceof User.UserStatus status ? status.name() : column;
+    }
+}
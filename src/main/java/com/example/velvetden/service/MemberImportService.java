@@ -0,0 +1,372 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.dto.MemberImportErrorDTO;
+import com.example.velvetden.dto.MemberImportResultDTO;
+import com.example.velvetden.entity.User;
+import com.example.velvetden.repository.MemberImportRepository;
+import com.example.velvetden.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports members from a CSV or NDJSON stream, e.g. when migrating from another system. The
+ * input is read in chunks: each chunk's passwords are hashed in parallel on a bounded pool and
+ * the chunk is inserted in one JDBC batch, so memory use is bounded by the chunk size plus the
+ * set of known emails. Rows that can't be imported are reported and don't stop the rest.
+ *
+ * Columns / fields match the member export: email, password, firstName, lastName, status, age,
+ * location, height, size, adminComments. Only email and password are required.
+ */
+@Service
+public class MemberImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberImportService.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Column sizes of the users table (V1, V9)
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_MEASUREMENT_LENGTH = 50;
+
+    private final MemberImportRepository memberImportRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final int hashThreads;
+
+    public MemberImportService(
+            MemberImportRepository memberImportRepository,
+            BoundedPasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            @Value("${members.import.hash-threads:0}") int hashThreads) {
+        this.memberImportRepository = memberImportRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.hashThreads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public MemberImportResultDTO importMembers(InputStream in, boolean csv) {
+        Report report = new Report();
+        Set<String> knownEmails = memberImportRepository.findAllEmails();
+        ExecutorService hashing = Executors.newFixedThreadPool(hashThreads);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            RowSource rows = csv ? new CsvRows(reader) : new NdjsonRows(reader);
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            Row row;
+            while ((row = rows.next()) != null) {
+                String error = validate(row, knownEmails);
+                if (error != null) {
+                    report.fail(row, error);
+                    continue;
+                }
+                knownEmails.add(row.email);
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    insert(chunk, hashing, report);
+                    chunk.clear();
+                }
+            }
+            insert(chunk, hashing, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            hashing.shutdown();
+        }
+
+        logger.info("Member import: {} imported, {} failed", report.imported, report.failed);
+        return new MemberImportResultDTO(report.imported, report.failed, report.errors);
+    }
+
+    private String validate(Row row, Set<String> knownEmails) {
+        if (row.error != null) {
+            return row.error;
+        }
+        if (row.email == null || row.email.isBlank() || !row.email.contains("@")) {
+            return "A valid email is required";
+        }
+        if (row.password == null || row.password.isEmpty()) {
+            return "Password is required";
+        }
+        if (knownEmails.contains(row.email)) {
+            return "Email already registered";
+        }
+        // Checked here so one oversized value doesn't fail the whole chunk's batch
+        if (tooLong(row.email, MAX_TEXT_LENGTH)) {
+            return "Email is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (tooLong(row.firstName, MAX_TEXT_LENGTH) || tooLong(row.lastName, MAX_TEXT_LENGTH)) {
+            return "Name is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (tooLong(row.location, MAX_TEXT_LENGTH)) {
+            return "Location is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (tooLong(row.height, MAX_MEASUREMENT_LENGTH) || tooLong(row.size, MAX_MEASUREMENT_LENGTH)) {
+            return "Height and size can be at most " + MAX_MEASUREMENT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value, int maxLength) {
+        return value != null && value.length() > maxLength;
+    }
+
+    private void insert(List<Row> chunk, ExecutorService hashing, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // BCrypt dominates the import time, so hash the whole chunk in parallel. On the import's
+        // own pool, so a large import doesn't fill the queue that logins use
+        List<CompletableFuture<String>> hashes = chunk.stream()
+            .map(row -> CompletableFuture.supplyAsync(() -> passwordEncoder.encodeDirectly(row.password), hashing))
+            .toList();
+
+        List<Row> hashed = new ArrayList<>(chunk.size());
+        List<MemberImportRepository.NewMember> members = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            String hash;
+            try {
+                hash = hashes.get(i).join();
+            } catch (CompletionException e) {
+                // E.g. a password BCrypt refuses; only this row is lost
+                report.fail(row, "Failed to hash password: " + e.getCause().getMessage());
+                continue;
+            }
+            hashed.add(row);
+            members.add(new MemberImportRepository.NewMember(
+                row.email, hash,
+                row.firstName != null ? row.firstName : "",
+                row.lastName != null ? row.lastName : "",
+                row.status, row.age, row.location, row.height, row.size, row.adminComments));
+        }
+
+        int[] counts;
+        try {
+            counts = memberImportRepository.insertAll(members, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // A row validate() didn't catch fails the whole batch; retry one by one to find it
+            logger.warn("Member import batch failed, inserting its {} rows one by one: {}", members.size(), e.getMessage());
+            insertEach(hashed, members, report);
+            return;
+        }
+        for (int i = 0; i < hashed.size(); i++) {
+            record(hashed.get(i), counts[i], report);
+        }
+    }
+
+    private void insertEach(List<Row> rows, List<MemberImportRepository.NewMember> members, Report report) {
+        for (int i = 0; i < rows.size(); i++) {
+            int[] counts;
+            try {
+                counts = memberImportRepository.insertAll(List.of(members.get(i)), LocalDateTime.now());
+            } catch (RuntimeException e) {
+                report.fail(rows.get(i), "Failed to insert: " + e.getMessage());
+                continue;
+            }
+            record(rows.get(i), counts[0], report);
+        }
+    }
+
+    private void record(Row row, int count, Report report) {
+        if (count == 0) {
+            report.fail(row, "Email already registered");
+        } else {
+            report.imported++;
+        }
+    }
+
+    private static final class Row {
+        private long number;
+        private String email;
+        private String password;
+        private String firstName;
+        private String lastName;
+        private User.UserStatus status = User.UserStatus.IN_REVIEW;
+        private Integer age;
+        private String location;
+        private String height;
+        private String size;
+        private String adminComments;
+        private String error; // Set when the row could not be parsed
+
+        private void set(String field, String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            switch (field) {
+                case "email" -> email = value.trim();
+                case "password" -> password = value;
+                case "firstName" -> firstName = value;
+                case "lastName" -> lastName = value;
+                case "status" -> {
+                    try {
+                        status = User.UserStatus.valueOf(value.trim().toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        error = "Invalid status: " + value;
+                    }
+                }
+                case "age" -> {
+                    try {
+                        age = Integer.parseInt(value.trim());
+                    } catch (NumberFormatException e) {
+                        error = "Invalid age: " + value;
+                    }
+                }
+                case "location" -> location = value;
+                case "height" -> height = value;
+                case "size" -> size = value;
+                case "adminComments" -> adminComments = value;
+                default -> {
+                    // Other columns (e.g. id, createdAt from an export) are ignored
+                }
+            }
+        }
+    }
+
+    private static final class Report {
+        private long imported;
+        private long failed;
+        private final List<MemberImportErrorDTO> errors = new ArrayList<>();
+
+        private void fail(Row row, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new MemberImportErrorDTO(row.number, row.email, error));
+            }
+        }
+    }
+
+    private interface RowSource {
+        Row next() throws IOException; // null at the end of the input
+    }
+
+    private final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private long number;
+
+        private NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            Row row = new Row();
+            row.number = ++number;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                node.fields().forEachRemaining(field ->
+                    row.set(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+            } catch (IOException e) {
+                row.error = "Invalid JSON";
+            }
+            return row;
+        }
+    }
+
+    private static final class CsvRows implements RowSource {
+        private final BufferedReader reader;
+        private List<String> header;
+        private long number;
+
+        private CsvRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+            }
+
+            List<String> values = readRecord();
+            while (values != null && values.size() == 1 && values.get(0).isBlank()) {
+                values = readRecord(); // Blank line
+            }
+            if (values == null) {
+                return null;
+            }
+
+            Row row = new Row();
+            row.number = ++number;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                fields.put(header.get(i).trim(), values.get(i));
+            }
+            fields.forEach(row::set);
+            return row;
+        }
+
+        // One RFC 4180 record; quoted values may contain commas, quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            value.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        value.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.dto.ModerationActionDTO;
+import com.example.velvetden.dto.ModerationResultDTO;
+import com.example.velvetden.entity.User;
+import com.example.velvetden.repository.UserModerationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a batch of moderation decisions (approve, reject, request picture) in one
+ * transaction, with one update per resulting status rather than one per user. Users whose
+ * status actually changed are notified by email in one batch once the transaction has
+ * committed; repeating a decision sends nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class ModerationService {
+
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_NOTES_LENGTH = 1000; // Length of users.verification_notes
+
+    private final UserModerationRepository userModerationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailService emailService;
+    private final PrincipalCache principalCache;
+
+    /**
+     * @return one result per requested action, in request order
+     */
+    public List<ModerationResultDTO> moderate(List<ModerationActionDTO> actions) {
+        if (actions == null || actions.isEmpty()) {
+            throw new IllegalArgumentException("At least one moderation action is required");
+        }
+        if (actions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " moderation actions per request");
+        }
+
+        List<ModerationResultDTO> results = new ArrayList<>();
+        Map<User.UserStatus, List<Long>> idsByStatus = new EnumMap<>(User.UserStatus.class);
+        List<Long> notedIds = new ArrayList<>();
+        List<String> notes = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (ModerationActionDTO action : actions) {
+            ModerationResultDTO result = new ModerationResultDTO(action.getUserId(), action.getAction(), false, null, null);
+            results.add(result);
+
+            User.UserStatus status = statusFor(action.getAction());
+            if (action.getUserId() == null) {
+                result.setError("User ID cannot be null");
+            } else if (status == null) {
+                result.setError("Unknown action: " + action.getAction());
+            } else if (action.getNotes() != null && action.getNotes().length() > MAX_NOTES_LENGTH) {
+                result.setError("Notes are longer than " + MAX_NOTES_LENGTH + " characters");
+            } else if (!seen.add(action.getUserId())) {
+                result.setError("User appears more than once in this batch");
+            } else {
+                idsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(action.getUserId());
+                if (action.getNotes() != null) {
+                    notedIds.add(action.getUserId());
+                    notes.add(action.getNotes());
+                }
+            }
+        }
+
+        List<UserModerationRepository.Moderated> moderated = transactionTemplate.execute(tx -> {
+            List<UserModerationRepository.Moderated> updated = new ArrayList<>();
+            idsByStatus.forEach((status, ids) -> updated.addAll(userModerationRepository.updateStatus(ids, status)));
+            userModerationRepository.updateNotes(notedIds, notes);
+            return updated;
+        });
+
+        Map<Long, UserModerationRepository.Moderated> moderatedById = new HashMap<>();
+        moderated.forEach(user -> moderatedById.put(user.id(), user));
+        for (ModerationResultDTO result : results) {
+            if (result.getError() != null) {
+                continue;
+            }
+            UserModerationRepository.Moderated user = moderatedById.get(result.getUserId());
+            if (user == null) {
+                result.setError("User not found");
+            } else {
+                result.setSuccess(true);
+                result.setStatus(user.status().name());
+            }
+        }
+
+        notify(moderated);
+        return results;
+    }
+
+    /**
+     * Applies a single decision, e.g. from the review screen, notifying the user like a batch would.
+     *
+     * @return the moderated user
+     */
+    public UserModerationRepository.Moderated moderate(Long userId, String action) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        User.UserStatus status = statusFor(action);
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+
+        List<UserModerationRepository.Moderated> moderated = userModerationRepository.updateStatus(List.of(userId), status);
+        if (moderated.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        notify(moderated);
+        return moderated.get(0);
+    }
+
+    private void notify(List<UserModerationRepository.Moderated> moderated) {
+        List<UserModerationRepository.Moderated> changed = moderated.stream()
+            .filter(UserModerationRepository.Moderated::changed)
+            .toList();
+        // Signed-in members see their new status on their next request
+        changed.forEach(user -> principalCache.invalidate(user.id()));
+        emailService.sendModerationNotifications(changed);
+    }
+
+    private User.UserStatus statusFor(String action) {
+        if (action == null) {
+            return null;
+        }
+        return switch (action.toLowerCase()) {
+            case "approve" -> User.UserStatus.APPROVED;
+            case "reject" -> User.UserStatus.REJECTED;
+            case "request-picture" -> User.UserStatus.PICTURE_REQUESTED;
+            default -> null;
+        };
+    }
+}
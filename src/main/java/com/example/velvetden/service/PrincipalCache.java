@@ -0,0 +1,124 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.repository.UserRepository;
+import com.example.velvetden.security.AuthenticatedUser;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated principals by email, so the auth filter does not query the database on every
+ * request. Entries live for {@code ttl-seconds}, which bounds how long a change made outside
+ * {@link #invalidate(Long)} can go unnoticed; the cache is bounded by {@code max-entries},
+ * and when it is full new principals are still loaded, just not remembered.
+ *
+ * A load that overlaps an invalidation is not kept: it may have read the row before the change
+ * committed, and keeping it would undo the invalidation until the entry expires.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final UserRepository userRepository;
+
+    @Value("${auth.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${auth.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> principalsByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>(); // So invalidation is a lookup
+    private final AtomicLong generation = new AtomicLong(); // Bumped by every invalidation
+    private final Stats stats = new Stats();
+
+    private record Entry(AuthenticatedUser principal, long expiresAtMillis) {
+    }
+
+    @Getter
+    public static class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+        private final AtomicLong lastLoggedMisses = new AtomicLong();
+    }
+
+    /**
+     * @return the principal for the email, or null if there is no such user
+     */
+    public AuthenticatedUser get(String email) {
+        long now = System.currentTimeMillis();
+        Entry cached = principalsByEmail.get(email);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                stats.hits.incrementAndGet();
+                return cached.principal();
+            }
+            principalsByEmail.remove(email, cached);
+            emailsById.remove(cached.principal().getId(), email);
+        }
+        stats.misses.incrementAndGet();
+
+        long loadedAt = generation.get();
+        // Unknown emails are not remembered, so a user created later is found straight away
+        AuthenticatedUser principal = userRepository.findPrincipalByEmail(email).orElse(null);
+        if (principal != null && principalsByEmail.size() < maxEntries) {
+            Entry entry = new Entry(principal, now + ttlSeconds * 1000);
+            emailsById.put(principal.getId(), email);
+            principalsByEmail.put(email, entry);
+            // An invalidation that ran during the load either sees the entry above and removes
+            // it, or bumped the generation before this check
+            if (generation.get() != loadedAt) {
+                principalsByEmail.remove(email, entry);
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Drops the user's principal; call once a change to their status, role or email is saved.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        String email = emailsById.remove(userId);
+        if (email != null && principalsByEmail.remove(email) != null) {
+            stats.invalidations.incrementAndGet();
+        }
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    // Drops expired principals and logs the cache counters when there was new traffic
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        principalsByEmail.values().removeIf(entry -> {
+            if (entry.expiresAtMillis() > now) {
+                return false;
+            }
+            emailsById.remove(entry.principal().getId());
+            return true;
+        });
+
+        long misses = stats.misses.get();
+        if (stats.lastLoggedMisses.getAndSet(misses) != misses) {
+            logger.info("Principal cache: {} hits, {} misses, {} invalidations, {} cached",
+                stats.hits.get(), misses, stats.invalidations.get(), principalsByEmail.size());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.velvetden.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strong ETags for the public read endpoints, so pollers can be answered with 304 Not Modified
+ * without loading anything. The event version is bumped after every committed booking,
+ * cancellation or event change. Tags carry the start time of this instance, so a tag issued
+ * before a restart never matches afterwards.
+ */
+@Component
+public class ResponseVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong eventsVersion = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceAvailabilityChanged(SpaceAvailabilityChangedEvent event) {
+        eventsVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        eventsVersion.incrementAndGet();
+    }
+
+    // Read before the events are loaded: a change committing meanwhile only costs one extra 200
+    public String eventsETag() {
+        return tag("events", eventsVersion.get());
+    }
+
+    public String upcomingETag(UpcomingEventCache.Snapshot snapshot) {
+        return tag("upcoming", snapshot.getVersion());
+    }
+
+    // Templates are only written by migrations and seeding, so they can only change with a restart
+    public String templatesETag() {
+        return tag("templates", 0);
+    }
+
+    private String tag(String resource, long version) {
+        return "\"" + resource + "-" + epoch + "-" + version + "\"";
+    }
+}
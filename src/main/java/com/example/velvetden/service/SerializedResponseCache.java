@@ -0,0 +1,118 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.web.AcceptEncoding;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps hot JSON responses as ready-to-send bytes, plain and gzipped, so each version of a
+ * resource is serialized once instead of once per request. Entries are grouped per resource
+ * (e.g. "events.page") and keyed by the resource version, the same one its ETag is built from;
+ * when a newer version is requested, the whole group is dropped.
+ */
+@Component
+public class SerializedResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntriesPerResource;
+    private final Map<String, AtomicReference<Generation>> generations = new ConcurrentHashMap<>();
+
+    public SerializedResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${responses.serialized-cache.max-entries-per-resource:256}") int maxEntriesPerResource) {
+        this.objectMapper = objectMapper;
+        this.maxEntriesPerResource = maxEntriesPerResource;
+    }
+
+    /**
+     * Returns the cached bytes of {@code resource} at {@code version} for {@code key}, or
+     * serializes what the loader returns. The loader's status and headers (ETag, Cache-Control,
+     * cursors) are kept with the body.
+     */
+    public ResponseEntity<byte[]> respond(
+            String resource,
+            String version,
+            String key,
+            WebRequest request,
+            Supplier<ResponseEntity<?>> loader) {
+        Generation generation = generationOf(resource, version);
+        Body body = generation.bodies.get(key);
+        if (body == null) {
+            body = serialize(loader.get());
+            if (generation.bodies.size() < maxEntriesPerResource) {
+                Body existing = generation.bodies.putIfAbsent(key, body);
+                body = existing != null ? existing : body;
+            }
+        }
+
+        boolean gzip = AcceptEncoding.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(body.status)
+            .headers(body.headers)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? body.gzip : body.json);
+    }
+
+    private Generation generationOf(String resource, String version) {
+        AtomicReference<Generation> current = generations.computeIfAbsent(resource, name -> new AtomicReference<>());
+        return current.updateAndGet(generation ->
+            generation != null && generation.version.equals(version) ? generation : new Generation(version));
+    }
+
+    private Body serialize(ResponseEntity<?> response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response.getBody());
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(json);
+            }
+            return new Body(response.getStatusCode().value(), HttpHeaders.readOnlyHttpHeaders(response.getHeaders()),
+                json, gzipped.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize response: " + e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Generation {
+        private final String version;
+        private final Map<String, Body> bodies = new ConcurrentHashMap<>();
+
+        private Generation(String version) {
+            this.version = version;
+        }
+    }
+
+    private static final class Body {
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private Body(int status, HttpHeaders headers, byte[] json, byte[] gzip) {
+            this.status = status;
+            this.headers = headers;
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.velvetden.service;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader and everyone
+ * who asks for the key while it is running waits for that result instead of loading it again.
+ * Nothing is cached once the load finishes.
+ *
+ * Loads are grouped by name (e.g. "events.all") for the coalescing counters, which are logged
+ * once a minute when something was coalesced.
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stats> statsByGroup = new ConcurrentHashMap<>();
+
+    @Getter
+    public static class Stats {
+        private final AtomicLong loads = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong lastLoggedCoalesced = new AtomicLong();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String group, Object key, Supplier<V> loader) {
+        String flightKey = group + ":" + key;
+        Stats stats = statsByGroup.computeIfAbsent(group, name -> new Stats());
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+        if (existing != null) {
+            stats.coalesced.incrementAndGet();
+            try {
+                return (V) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        stats.loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too (e.g. OutOfMemoryError), or the waiters would never be released
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    public Map<String, Stats> getStats() {
+        return Map.copyOf(statsByGroup);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void logStats() {
+        statsByGroup.forEach((group, stats) -> {
+            long coalesced = stats.coalesced.get();
+            if (stats.lastLoggedCoalesced.getAndSet(coalesced) != coalesced) {
+                logger.info("Single-flight {}: {} loads, {} calls coalesced", group, stats.loads.get(), coalesced);
+            }
+        });
+    }
+}
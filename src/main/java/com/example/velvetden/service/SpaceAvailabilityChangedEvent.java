@@ -0,0 +1,17 @@
+package com.example.velvetden.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a space is booked or released. Listeners annotated with
+ * {@code @TransactionalEventListener} only see it once the change has committed.
+ */
+@Getter
+@AllArgsConstructor
+public class SpaceAvailabilityChangedEvent {
+    private final Long eventId;
+    private final Long spaceId;
+    private final Long userId; // User who booked or released the space
+    private final boolean available;
+}
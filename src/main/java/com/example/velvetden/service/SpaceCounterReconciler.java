@@ -0,0 +1,54 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Checks the denormalized {@code total_spaces} / {@code available_spaces} counters on events
+ * against their spaces and repairs any that drifted, e.g. after a manual data fix. Each repair
+ * locks the event row first, so it can't race a booking of the same event.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpaceCounterReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpaceCounterReconciler.class);
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Scheduled(fixedDelayString = "${booking.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        List<Long> drifted;
+        try {
+            drifted = eventRepository.findIdsWithSpaceCounterDrift();
+        } catch (RuntimeException e) {
+            logger.error("Failed to check event space counters: {}", e.getMessage());
+            return;
+        }
+
+        for (Long eventId : drifted) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (eventRepository.lockById(eventId).isPresent()) {
+                        eventRepository.repairSpaceCounters(eventId);
+                        // Cached event snapshots pick up the corrected counts after commit
+                        eventPublisher.publishEvent(new EventChangedEvent(eventId));
+                        logger.warn("Repairing drifted space counters of event {}", eventId);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Failed to repair space counters of event {}: {}", eventId, e.getMessage());
+            }
+        }
+    }
+}
@@ -2,21 +2,39 @@ package com.example.velvetden.service;
 
 import com.example.velvetden.entity.Space;
 import com.example.velvetden.entity.User;
-import com.example.velvetden.repository.EventRepository;
 import com.example.velvetden.repository.SpaceRepository;
+import com.example.velvetden.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SpaceService {
     
     private final SpaceRepository spaceRepository;
-    private final EventRepository eventRepository;
+    private final BookingLedger bookingLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HoldExpiryWheel holdExpiryWheel;
     
-    @Transactional
-    public Space bookSpace(Long eventId, Long spaceId, User user) {
+    @Value("${booking.hold.minutes:10}")
+    private long holdMinutes;
+    
+    // Not @Transactional: contended attempts are settled by the booking ledger
+    // before a database connection is taken
+    public Space bookSpace(Long eventId, Long spaceId, AuthenticatedUser user) {
         if (!user.isApproved()) {
             throw new RuntimeException("Only approved users can book spaces");
         }
@@ -28,29 +46,49 @@ public class SpaceService {
             throw new IllegalArgumentException("Space ID cannot be null");
         }
         
-        // Check if user already has a booking for this event
-        if (spaceRepository.findByUserId(user.getId()).stream()
-                .anyMatch(s -> s.getEvent().getId().equals(eventId))) {
-            throw new RuntimeException("You can only book one space per event");
+        return claimAndPersist(eventId, spaceId, user.getId(), null, "You can only book one space per event");
+    }
+    
+    /**
+     * Reserves a space for the user for a limited time. The space shows as taken straight away;
+     * it is released automatically unless {@link #confirmHold(Long, AuthenticatedUser)} is called in time.
+     */
+    public Space holdSpace(Long eventId, Long spaceId, AuthenticatedUser user) {
+        if (!user.isApproved()) {
+            throw new RuntimeException("Only approved users can book spaces");
         }
         
-        // Verify event exists
-        if (!eventRepository.existsById(eventId)) {
-            throw new RuntimeException("Event not found");
+        if (eventId == null) {
+            throw new IllegalArgumentException("Event ID cannot be null");
         }
-        
-        Space space = spaceRepository.findByEventIdAndId(eventId, spaceId)
-            .orElseThrow(() -> new RuntimeException("Space not found"));
-        
-        if (!space.isAvailable()) {
-            throw new RuntimeException("Space is already booked");
+        if (spaceId == null) {
+            throw new IllegalArgumentException("Space ID cannot be null");
         }
         
-        space.setUser(user);
-        return spaceRepository.save(space);
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(holdMinutes);
+        Space space = claimAndPersist(eventId, spaceId, user.getId(), expiresAt, "You can only book one space per event");
+        holdExpiryWheel.schedule(spaceId, user.getId(), expiresAt);
+        return space;
     }
     
     @Transactional
+    public void confirmHold(Long spaceId, AuthenticatedUser user) {
+        if (spaceId == null) {
+            throw new IllegalArgumentException("Space ID cannot be null");
+        }
+        
+        String outcome = spaceRepository.confirmHoldIfOwnedByUser(spaceId, user.getId(), LocalDateTime.now());
+        switch (outcome) {
+            case "CONFIRMED" -> {
+                // Nothing else to do: the space was already taken while held
+            }
+            case "SPACE_NOT_FOUND" -> throw new RuntimeException("Space not found");
+            case "NOT_OWNER" -> throw new RuntimeException("Space is not held by this user.");
+            case "NOT_HELD" -> throw new RuntimeException("Booking is already confirmed.");
+            default -> throw new RuntimeException("Your hold on this space has expired.");
+        }
+    }
+    
     public Space bookSpaceForUser(Long eventId, Long spaceId, User user) {
         // Admin can book for any user, but still check if user exists
         if (user == null) {
@@ -64,61 +102,81 @@ public class SpaceService {
             throw new IllegalArgumentException("Space ID cannot be null");
         }
         
-        // Check if user already has a booking for this event
-        if (spaceRepository.findByUserId(user.getId()).stream()
-                .anyMatch(s -> s.getEvent().getId().equals(eventId))) {
-            throw new RuntimeException("User already has a booking for this event");
+        return claimAndPersist(eventId, spaceId, user.getId(), null, "User already has a booking for this event");
+    }
+    
+    private Space claimAndPersist(
+            Long eventId, Long spaceId, Long userId, LocalDateTime holdExpiresAt, String duplicateBookingMessage) {
+        BookingLedger.ClaimResult claim = bookingLedger.claim(eventId, spaceId, userId);
+        switch (claim) {
+            case SPACE_NOT_FOUND -> throw new RuntimeException("Space not found");
+            case SPACE_TAKEN -> throw new RuntimeException("Space is already booked");
+            case ALREADY_BOOKED -> throw new RuntimeException(duplicateBookingMessage);
+            default -> {
+                // CLAIMED, or NOT_TRACKED which relies on the database checks alone
+            }
         }
         
-        // Verify event exists
-        if (!eventRepository.existsById(eventId)) {
-            throw new RuntimeException("Event not found");
+        try {
+            return transactionTemplate.execute(
+                status -> persistBooking(eventId, spaceId, userId, holdExpiresAt, duplicateBookingMessage));
+        } catch (RuntimeException e) {
+            if (claim == BookingLedger.ClaimResult.CLAIMED) {
+                bookingLedger.release(spaceId, userId);
+            }
+            throw e;
         }
-        
-        Space space = spaceRepository.findByEventIdAndId(eventId, spaceId)
-            .orElseThrow(() -> new RuntimeException("Space not found"));
-        
-        if (!space.isAvailable()) {
-            throw new RuntimeException("Space is already booked");
+    }
+    
+    private Space persistBooking(
+            Long eventId, Long spaceId, Long userId, LocalDateTime holdExpiresAt, String duplicateBookingMessage) {
+        // Availability, event membership and the one-booking-per-event rule are all
+        // checked by the same conditional UPDATE, so there is no window between check and write
+        String outcome;
+        try {
+            outcome = spaceRepository.bookIfAvailable(eventId, spaceId, userId, holdExpiresAt);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent booking by the same user for this event won the unique index
+            outcome = "ALREADY_BOOKED";
+        }
+        switch (outcome) {
+            case "BOOKED" -> {
+                // Booked below
+            }
+            case "ALREADY_BOOKED" -> throw new RuntimeException(duplicateBookingMessage);
+            case "EVENT_NOT_FOUND" -> throw new RuntimeException("Event not found");
+            case "SPACE_NOT_FOUND" -> throw new RuntimeException("Space not found");
+            default -> throw new RuntimeException("Space is already booked");
         }
         
-        space.setUser(user);
-        return spaceRepository.save(space);
+        Space saved = spaceRepository.findWithTemplateById(spaceId)
+            .orElseThrow(() -> new RuntimeException("Space not found"));
+        eventPublisher.publishEvent(new SpaceAvailabilityChangedEvent(eventId, spaceId, userId, false));
+        return saved;
     }
     
     @Transactional
-    public void cancelBooking(Long spaceId, User user) {
+    public void cancelBooking(Long spaceId, AuthenticatedUser user) {
         if (spaceId == null) {
             throw new IllegalArgumentException("Space ID cannot be null");
         }
         
-        // Verify space exists
-        if (!spaceRepository.existsById(spaceId)) {
-            throw new RuntimeException("Space not found");
-        }
-        
-        // Atomically cancel booking only if it's still booked by this user
-        // This prevents race conditions where another request could cancel/book the space
-        // between validation and save
-        int rowsAffected = spaceRepository.cancelBookingIfOwnedByUser(spaceId, user.getId());
+        // Atomically cancel booking only if it's still booked by this user; the outcome
+        // code comes back from the same statement, so no follow-up query is needed for errors
+        SpaceRepository.CancellationOutcome result = spaceRepository.cancelBookingIfOwnedByUser(spaceId, user.getId());
         
-        if (rowsAffected == 0) {
-            // Either space is not booked, or booking doesn't belong to this user
-            // Fetch to provide a more specific error message
-            Space space = spaceRepository.findByIdWithUser(spaceId)
-                .orElseThrow(() -> new RuntimeException("Space not found"));
-            
-            if (space.getUser() == null) {
-                throw new RuntimeException("Space is not currently booked.");
-            }
-            
-            if (!space.getUser().getId().equals(user.getId())) {
-                throw new RuntimeException("Space is not booked by this user.");
+        switch (result.getOutcome()) {
+            case "CANCELLED" -> {
+                // Cancelled below
             }
-            
-            // This shouldn't happen, but handle it just in case
-            throw new RuntimeException("Failed to cancel booking. Please try again.");
+            case "SPACE_NOT_FOUND" -> throw new RuntimeException("Space not found");
+            case "NOT_BOOKED" -> throw new RuntimeException("Space is not currently booked.");
+            case "NOT_OWNER" -> throw new RuntimeException("Space is not booked by this user.");
+            default -> throw new RuntimeException("Failed to cancel booking. Please try again.");
         }
+        
+        // Released in the booking ledger once this transaction commits
+        eventPublisher.publishEvent(new SpaceAvailabilityChangedEvent(result.getEventId(), spaceId, user.getId(), true));
     }
     
     @Transactional
@@ -127,18 +185,49 @@ public class SpaceService {
             throw new IllegalArgumentException("Space ID cannot be null");
         }
         
-        // Verify space exists and is booked
-        Space space = spaceRepository.findByIdWithUser(spaceId)
-            .orElseThrow(() -> new RuntimeException("Space not found"));
+        // Admin can cancel any booking or hold; cleared in one statement, like cancelBooking
+        SpaceRepository.AdminCancellationOutcome result = spaceRepository.cancelBookingIfBooked(spaceId);
         
-        if (space.getUser() == null) {
-            throw new RuntimeException("Space is not currently booked.");
+        switch (result.getOutcome()) {
+            case "CANCELLED" -> {
+                // Cancelled below
+            }
+            case "SPACE_NOT_FOUND" -> throw new RuntimeException("Space not found");
+            case "NOT_BOOKED" -> throw new RuntimeException("Space is not currently booked.");
+            default -> throw new RuntimeException("Failed to cancel booking. Please try again.");
         }
         
-        // Admin can cancel any booking - just set user to null
-        space.setUser(null);
-        spaceRepository.save(space);
+        eventPublisher.publishEvent(new SpaceAvailabilityChangedEvent(
+            result.getEventId(), spaceId, result.getPreviousUserId(), true));
+    }
+    
+    // A single sweep for all holds; expired ones are released in one statement per tick
+    @Scheduled(fixedDelayString = "${booking.hold.tick-ms:1000}")
+    public void releaseExpiredHolds() {
+        List<HoldExpiryWheel.Hold> due = holdExpiryWheel.advance();
+        if (due.isEmpty()) {
+            return;
+        }
+        
+        List<Long> spaceIds = due.stream()
+            .map(HoldExpiryWheel.Hold::getSpaceId)
+            .distinct()
+            .collect(Collectors.toList());
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            // Rows are (spaceId, eventId, userId); confirmed or cancelled holds don't come back
+            for (Object[] row : spaceRepository.releaseExpiredHolds(spaceIds, LocalDateTime.now())) {
+                eventPublisher.publishEvent(new SpaceAvailabilityChangedEvent(
+                    (Long) row[1], (Long) row[0], (Long) row[2], true));
+            }
+        });
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleActiveHolds() {
+        // Rows are (spaceId, userId, holdExpiresAt)
+        for (Object[] row : spaceRepository.findActiveHolds()) {
+            holdExpiryWheel.schedule((Long) row[0], (Long) row[1], (LocalDateTime) row[2]);
+        }
     }
 }
-
-
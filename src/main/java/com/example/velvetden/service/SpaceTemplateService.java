@@ -6,6 +6,7 @@ import com.example.velvetden.repository.SpaceTemplateRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,12 +16,15 @@ import java.util.stream.Collectors;
 public class SpaceTemplateService {
     
     private final SpaceTemplateRepository spaceTemplateRepository;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional(readOnly = true)
+    // Not @Transactional: callers that join an in-flight load should not hold a connection while waiting
     public List<SpaceTemplateDTO> getAllTemplates() {
-        return spaceTemplateRepository.findAllByOrderByNameAsc().stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return singleFlight.execute("space-templates.all", "all", () -> transactionTemplate.execute(status ->
+            spaceTemplateRepository.findAllByOrderByNameAsc().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList())));
     }
     
     @Transactional(readOnly = true)
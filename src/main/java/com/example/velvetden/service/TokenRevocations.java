@@ -0,0 +1,110 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.repository.TokenVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token versions for stateless authentication ({@code auth.stateless=true}). A token
+ * is revoked when the user's {@code token_version} has moved past the one it was issued with.
+ * Only users revoked within the token lifetime are kept, since older tokens have expired
+ * anyway; the map is loaded on startup and then refreshed with the changes since the last
+ * poll, so lookups never reach the database.
+ *
+ * Any status change revokes, approval included: a member who is approved while signed in
+ * has to sign in again to get a token with the approved status.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocations {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+    // Revisions committed slightly out of order are picked up by the next poll
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private final TokenVersionRepository tokenVersionRepository;
+
+    @Value("${auth.stateless:false}")
+    private boolean enabled;
+
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMillis;
+
+    private final Map<Long, Revocation> revocationsByUser = new ConcurrentHashMap<>();
+    private volatile long lastRevisionSeen = -1;
+    private volatile LocalDateTime latestChangeAt; // Database clock
+
+    private record Revocation(int currentVersion, LocalDateTime changedAt) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return whether a token issued with {@code tokenVersion} has since been revoked
+     */
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        Revocation revocation = revocationsByUser.get(userId);
+        return revocation != null && tokenVersion < revocation.currentVersion();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        apply(tokenVersionRepository.findChangedWithin(tokenLifetimeMillis));
+        logger.info("Tracking token revocations of {} users", revocationsByUser.size());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long since = lastRevisionSeen;
+            apply(since >= 0
+                ? tokenVersionRepository.findChangedAfter(since, POLL_OVERLAP_SECONDS)
+                : tokenVersionRepository.findChangedWithin(tokenLifetimeMillis));
+        } catch (RuntimeException e) {
+            // Revocations already known keep applying; the next poll catches up
+            logger.warn("Failed to refresh token revocations: {}", e.getMessage());
+            return;
+        }
+
+        // Every token issued before a revocation older than the token lifetime has expired
+        LocalDateTime latest = latestChangeAt;
+        if (latest != null) {
+            LocalDateTime expiredBefore = latest.minusNanos(tokenLifetimeMillis * 1_000_000);
+            revocationsByUser.values().removeIf(revocation -> revocation.changedAt().isBefore(expiredBefore));
+        }
+    }
+
+    private void apply(List<TokenVersionRepository.VersionChange> changes) {
+        for (TokenVersionRepository.VersionChange change : changes) {
+            // Overlapping polls return the same rows again; versions only move forward
+            revocationsByUser.merge(change.userId(), new Revocation(change.tokenVersion(), change.changedAt()),
+                (existing, candidate) -> candidate.currentVersion() > existing.currentVersion() ? candidate : existing);
+            if (change.revision() > lastRevisionSeen) {
+                lastRevisionSeen = change.revision();
+            }
+            if (latestChangeAt == null || change.changedAt().isAfter(latestChangeAt)) {
+                latestChangeAt = change.changedAt();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.dto.EventSnapshotDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the upcoming event as a prebuilt, versioned snapshot so reads of
+ * {@code /api/events/upcoming} don't touch the database. A committed booking, cancellation or
+ * event change only marks the snapshot stale; the next read rebuilds it, so the request that
+ * made the change never waits for the reload. The snapshot is also stale once its event's
+ * start time passes.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpcomingEventCache {
+
+    private final EventService eventService;
+    private final SingleFlight singleFlight;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    @Getter
+    public static final class Snapshot {
+        private final long version;
+        private final long changesSeen;
+        private final EventSnapshotDTO event; // null if there is no upcoming event
+
+        private Snapshot(long version, long changesSeen, EventSnapshotDTO event) {
+            this.version = version;
+            this.changesSeen = changesSeen;
+            this.event = event;
+        }
+
+        private boolean isStale(long changes, LocalDateTime now) {
+            // Once the event starts, a different event is the upcoming one
+            return changesSeen != changes || (event != null && !event.getDateTime().isAfter(now));
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null || snapshot.isStale(changes.get(), LocalDateTime.now())) {
+            // Concurrent readers of a stale snapshot share one rebuild
+            snapshot = singleFlight.execute("events.upcoming", "current", this::rebuild);
+        }
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceAvailabilityChanged(SpaceAvailabilityChangedEvent event) {
+        Snapshot snapshot = current.get();
+        // Bookings of other events can't change which event is upcoming
+        if (snapshot != null && snapshot.event != null && !snapshot.event.getId().equals(event.getEventId())) {
+            return;
+        }
+        changes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    private Snapshot rebuild() {
+        // Read before loading: a change committing meanwhile leaves the result stale
+        long changesSeen = changes.get();
+        // Versions are taken before loading, so a slower, older rebuild never replaces a newer one
+        long version = versions.incrementAndGet();
+        EventSnapshotDTO event = eventService.findUpcomingEvent().map(EventSnapshotDTO::of).orElse(null);
+        Snapshot rebuilt = new Snapshot(version, changesSeen, event);
+        return current.accumulateAndGet(rebuilt,
+            (existing, candidate) -> existing == null || candidate.version > existing.version ? candidate : existing);
+    }
+}
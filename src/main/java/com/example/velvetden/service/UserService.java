@@ -1,18 +1,33 @@
 package com.example.velvetden.service;
 
+import com.example.velvetden.dto.UserDetailsDTO;
+import com.example.velvetden.dto.UserPageDTO;
 import com.example.velvetden.entity.User;
 import com.example.velvetden.repository.UserRepository;
+import com.example.velvetden.repository.UserRepositoryCustom;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_WORDS = 5;
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     
@@ -40,6 +55,171 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    /**
+     * One page of the admin member listing. Filtering, sorting and the booking counts are all
+     * done by the database; the total is only counted for the first page.
+     */
+    @Transactional(readOnly = true)
+    public UserPageDTO getUsersPage(String cursor, Integer size, String status, boolean activeBookingOnly, String sort) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        UserRepositoryCustom.AdminSort sortKey = parseSort(sort);
+        UserCursor after = cursor != null && !cursor.isBlank() ? UserCursor.decode(cursor, sortKey) : null;
+        LocalDateTime now = LocalDateTime.now();
+        
+        User.UserStatus userStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                userStatus = User.UserStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Invalid status, list all members
+            }
+        }
+        
+        // One extra row tells whether there is a next page
+        List<Object[]> rows = userRepository.findAdminPage(
+            userStatus, activeBookingOnly, now, sortKey,
+            after != null ? after.value() : null,
+            after != null ? after.id() : null,
+            pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Object[]> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        List<UserDetailsDTO> users = pageRows.stream()
+            .map(row -> convertToDetailsDTO((User) row[0], ((Long) row[1]).intValue()))
+            .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (hasMore && !pageRows.isEmpty()) {
+            User last = (User) pageRows.get(pageRows.size() - 1)[0];
+            nextCursor = UserCursor.of(last, sortKey).encode();
+        }
+        Long totalCount = after == null ? userRepository.countAdminPage(userStatus, activeBookingOnly, now) : null;
+        return new UserPageDTO(users, nextCursor, totalCount);
+    }
+    
+    /**
+     * Ranked member search over email, name, location and admin comments. Every word of the
+     * query matches as a prefix; names and emails also match with small typos. The cursor is
+     * the offset of the next page, since results are ordered by rank rather than a column.
+     */
+    @Transactional(readOnly = true)
+    public UserPageDTO searchUsers(String query, String cursor, Integer size, String status) {
+        int pageSize = size == null ? DEFAULT_SEARCH_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                offset = Math.max(0, Integer.parseInt(cursor));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        // Only letters and digits reach to_tsquery, so user input can't break its syntax
+        List<String> words = query == null ? List.of() : Arrays.stream(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .limit(MAX_SEARCH_WORDS)
+            .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return new UserPageDTO(List.of(), null, null);
+        }
+        String prefixQuery = words.stream().map(word -> word + ":*").collect(Collectors.joining(" & "));
+        String term = String.join(" ", words);
+        
+        String userStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                userStatus = User.UserStatus.valueOf(status.toUpperCase()).name();
+            } catch (IllegalArgumentException e) {
+                // Invalid status, search all members
+            }
+        }
+        
+        List<Object[]> rows = userRepository.search(prefixQuery, term, userStatus, pageSize + 1, offset);
+        boolean hasMore = rows.size() > pageSize;
+        List<Object[]> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        Map<Long, User> usersById = userRepository.findAllById(
+                pageRows.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDetailsDTO> users = pageRows.stream()
+            .filter(row -> usersById.containsKey(((Number) row[0]).longValue()))
+            .map(row -> convertToDetailsDTO(usersById.get(((Number) row[0]).longValue()), ((Number) row[1]).intValue()))
+            .collect(Collectors.toList());
+        
+        String nextCursor = hasMore ? String.valueOf(offset + pageSize) : null;
+        return new UserPageDTO(users, nextCursor, null);
+    }
+    
+    private UserRepositoryCustom.AdminSort parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return UserRepositoryCustom.AdminSort.CREATED_AT;
+        }
+        try {
+            return UserRepositoryCustom.AdminSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: " + sort);
+        }
+    }
+    
+    private UserDetailsDTO convertToDetailsDTO(User user, int bookedSpacesCount) {
+        UserDetailsDTO dto = new UserDetailsDTO();
+        dto.setId(user.getId());
+        dto.setEmail(user.getEmail());
+        dto.setFirstName(user.getFirstName());
+        dto.setLastName(user.getLastName());
+        dto.setStatus(user.getStatus().name());
+        dto.setApproved(user.isApproved());
+        dto.setCreatedAt(user.getCreatedAt());
+        dto.setVerificationImagePath(user.getVerificationImagePath());
+        dto.setBookedSpacesCount(bookedSpacesCount);
+        dto.setAge(user.getAge());
+        dto.setLocation(user.getLocation());
+        dto.setHeight(user.getHeight());
+        dto.setSize(user.getSize());
+        dto.setAdminComments(user.getAdminComments());
+        return dto;
+    }
+    
+    // Opaque keyset position: the sort key and id of the last member on a page
+    private record UserCursor(UserRepositoryCustom.AdminSort sort, Object value, Long id) {
+        
+        static UserCursor of(User user, UserRepositoryCustom.AdminSort sort) {
+            Object value = switch (sort) {
+                case CREATED_AT -> user.getCreatedAt();
+                case EMAIL -> user.getEmail();
+                case LAST_NAME -> user.getLastName();
+            };
+            return new UserCursor(sort, value, user.getId());
+        }
+        
+        String encode() {
+            String raw = sort + "|" + value + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static UserCursor decode(String cursor, UserRepositoryCustom.AdminSort expectedSort) {
+            UserRepositoryCustom.AdminSort sort;
+            Object value;
+            Long id;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int first = raw.indexOf('|');
+                int last = raw.lastIndexOf('|');
+                sort = UserRepositoryCustom.AdminSort.valueOf(raw.substring(0, first));
+                String rawValue = raw.substring(first + 1, last);
+                value = sort == UserRepositoryCustom.AdminSort.CREATED_AT ? LocalDateTime.parse(rawValue) : rawValue;
+                id = Long.parseLong(raw.substring(last + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor belongs to a different sort");
+            }
+            return new UserCursor(sort, value, id);
+        }
+    }
+    
     public User findByEmail(String email) {
         return userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,171 @@
+package com.example.velvetden.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of the book endpoint. Every user who tries to book an event is
+ * given an ordered queue position, and positions are admitted at a fixed rate per event, so
+ * only a trickle of requests reaches {@link SpaceService} during a drop. Everyone else gets
+ * their position back and polls it from memory without touching the database.
+ *
+ * Admission works like a token bucket: the admission cursor may run ahead of the queue by
+ * {@code burst} positions, so users are admitted straight away when there is no stampede.
+ *
+ * An admission is good for {@code admission-seconds}, or until the user books; after that
+ * they queue again at the back. Positions nobody has polled for {@code idle-seconds} are
+ * dropped, so users who gave up don't stay in memory.
+ */
+@Component
+public class WaitingRoom {
+
+    private final double admitRatePerSecond;
+    private final int burst;
+    private final long admissionNanos;
+    private final long idleNanos;
+
+    private final Map<Long, EventQueue> queuesByEvent = new ConcurrentHashMap<>();
+
+    public WaitingRoom(
+            @Value("${booking.waiting-room.admit-rate-per-second:20}") double admitRatePerSecond,
+            @Value("${booking.waiting-room.burst:6}") int burst,
+            @Value("${booking.waiting-room.admission-seconds:60}") long admissionSeconds,
+            @Value("${booking.waiting-room.idle-seconds:120}") long idleSeconds) {
+        this.admitRatePerSecond = admitRatePerSecond;
+        this.burst = burst;
+        this.admissionNanos = TimeUnit.SECONDS.toNanos(admissionSeconds);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Ticket {
+        private final long position;
+        private final long ahead; // Queued users that will be admitted before this one
+        private final boolean admitted;
+        private final long retryAfterSeconds; // Until this position is likely admitted; 0 once admitted
+    }
+
+    /**
+     * Queues the user for the event, keeping their existing position if they already have one
+     * and their admission, if any, has not expired.
+     */
+    public Ticket enter(Long eventId, Long userId) {
+        long now = System.nanoTime();
+        Position[] entered = new Position[1];
+        // Under the map's lock, so expire() can't drop the queue between lookup and insert
+        EventQueue queue = queuesByEvent.compute(eventId, (id, existing) -> {
+            EventQueue q = existing != null ? existing : new EventQueue(now);
+            Position position = q.positions.get(userId);
+            if (position == null || position.admissionExpired(now)) {
+                position = new Position(q.issued.incrementAndGet(), now);
+                q.positions.put(userId, position);
+            }
+            entered[0] = position;
+            return q;
+        });
+        return queue.ticket(entered[0], now);
+    }
+
+    /**
+     * Returns the user's current ticket without queueing them, or null if they are not queued.
+     */
+    public Ticket peek(Long eventId, Long userId) {
+        EventQueue queue = queuesByEvent.get(eventId);
+        if (queue == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        Position position = queue.positions.get(userId);
+        return position != null && !position.admissionExpired(now) ? queue.ticket(position, now) : null;
+    }
+
+    /**
+     * Ends the user's admission once they have booked; another attempt queues them again.
+     */
+    public void leave(Long eventId, Long userId) {
+        EventQueue queue = queuesByEvent.get(eventId);
+        if (queue != null) {
+            queue.positions.remove(userId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        // New events start with an empty queue; cancelled ones have nothing left to admit
+        queuesByEvent.remove(event.getEventId());
+    }
+
+    // Drops expired admissions and abandoned positions, and queues nobody is waiting in
+    @Scheduled(fixedDelayString = "${booking.waiting-room.sweep-ms:10000}")
+    public void expire() {
+        long now = System.nanoTime();
+        for (Long eventId : queuesByEvent.keySet()) {
+            queuesByEvent.computeIfPresent(eventId, (id, queue) -> {
+                queue.positions.values().removeIf(position ->
+                    position.admissionExpired(now) || now - position.lastSeenNanos > idleNanos);
+                return queue.positions.isEmpty() ? null : queue;
+            });
+        }
+    }
+
+    private final class Position {
+        private final long number;
+        private volatile long lastSeenNanos;
+        private volatile boolean admitted;
+        private volatile long admittedAtNanos;
+
+        private Position(long number, long now) {
+            this.number = number;
+            this.lastSeenNanos = now;
+        }
+
+        private boolean admissionExpired(long now) {
+            return admitted && now - admittedAtNanos > admissionNanos;
+        }
+    }
+
+    private final class EventQueue {
+        private final AtomicLong issued = new AtomicLong();
+        private final Map<Long, Position> positions = new ConcurrentHashMap<>(); // User id -> position
+        private double admittedUpTo = burst;
+        private long lastAdvanceNanos;
+
+        private EventQueue(long openedNanos) {
+            this.lastAdvanceNanos = openedNanos;
+        }
+
+        private Ticket ticket(Position position, long now) {
+            long admitted = advance();
+            position.lastSeenNanos = now;
+            if (position.number > admitted) {
+                long ahead = Math.max(0, position.number - admitted - 1);
+                long retryAfter = Math.max(1, (long) Math.ceil((ahead + 1) / admitRatePerSecond));
+                return new Ticket(position.number, ahead, false, retryAfter);
+            }
+            if (!position.admitted) {
+                position.admittedAtNanos = now;
+                position.admitted = true;
+            }
+            return new Ticket(position.number, 0, true, 0);
+        }
+
+        private synchronized long advance() {
+            long now = System.nanoTime();
+            double elapsedSeconds = (now - lastAdvanceNanos) / 1_000_000_000.0;
+            lastAdvanceNanos = now;
+            admittedUpTo = Math.min(issued.get() + burst, admittedUpTo + elapsedSeconds * admitRatePerSecond);
+            return (long) admittedUpTo;
+        }
+    }
+}
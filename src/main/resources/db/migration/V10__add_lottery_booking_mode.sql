@@ -0,0 +1,23 @@
+-- Add lottery booking mode to events
+-- Lottery events collect booking intents until lottery_closes_at, then allocate spaces in one pass
+ALTER TABLE events ADD COLUMN IF NOT EXISTS booking_mode VARCHAR(20) NOT NULL DEFAULT 'FIRST_COME'
+    CHECK (booking_mode IN ('FIRST_COME', 'LOTTERY'));
+ALTER TABLE events ADD COLUMN IF NOT EXISTS lottery_closes_at TIMESTAMP(6);
+ALTER TABLE events ADD COLUMN IF NOT EXISTS lottery_allocated BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Booking intents collected while a lottery is open (one per user per event)
+CREATE TABLE IF NOT EXISTS booking_intents (
+    id BIGSERIAL PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    space_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_intent_event FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    CONSTRAINT fk_intent_space FOREIGN KEY (space_id) REFERENCES spaces(id) ON DELETE CASCADE,
+    CONSTRAINT fk_intent_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT booking_intents_event_user_unique UNIQUE (event_id, user_id)
+);
+
+-- Grant privileges to velvetden user
+GRANT ALL PRIVILEGES ON TABLE booking_intents TO velvetden;
+GRANT ALL PRIVILEGES ON SEQUENCE booking_intents_id_seq TO velvetden;
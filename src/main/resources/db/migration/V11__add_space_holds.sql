@@ -0,0 +1,6 @@
+-- Add temporary holds to spaces
+-- A held space has user_id set and hold_expires_at in the future until the hold is confirmed
+ALTER TABLE spaces ADD COLUMN IF NOT EXISTS hold_expires_at TIMESTAMP(6);
+
+-- Create index for better query performance when recovering active holds
+CREATE INDEX IF NOT EXISTS idx_spaces_hold_expires_at ON spaces(hold_expires_at) WHERE hold_expires_at IS NOT NULL;
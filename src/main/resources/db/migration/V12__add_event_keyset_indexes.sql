@@ -0,0 +1,3 @@
+-- Indexes for keyset pagination of the event history (newest first)
+CREATE INDEX IF NOT EXISTS idx_events_date_time_id ON events(date_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_events_city_date_time_id ON events(city, date_time DESC, id DESC);
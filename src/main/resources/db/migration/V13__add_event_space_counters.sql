@@ -0,0 +1,7 @@
+-- Denormalized space counters, kept in step with bookings so event reads don't count spaces
+ALTER TABLE events ADD COLUMN IF NOT EXISTS total_spaces INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS available_spaces INTEGER NOT NULL DEFAULT 0;
+
+UPDATE events e SET
+    total_spaces = (SELECT COUNT(*) FROM spaces s WHERE s.event_id = e.id),
+    available_spaces = (SELECT COUNT(*) FROM spaces s WHERE s.event_id = e.id AND s.user_id IS NULL);
@@ -0,0 +1,4 @@
+-- Indexes for keyset pagination of the admin member listing
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_users_last_name_id ON users(last_name, id);
+CREATE INDEX IF NOT EXISTS idx_users_status ON users(status);
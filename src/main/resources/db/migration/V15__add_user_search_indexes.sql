@@ -0,0 +1,13 @@
+-- Admin member search: full-text (prefix) matching over the searchable fields, ranked by
+-- field weight, plus trigram matching on name and email to tolerate typos
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(email, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(first_name, '') || ' ' || coalesce(last_name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(location, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(admin_comments, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_users_search_vector ON users USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_users_search_trgm ON users USING gin (lower(email || ' ' || first_name || ' ' || last_name) gin_trgm_ops);
@@ -0,0 +1,24 @@
+-- Per-user token version for stateless authentication: tokens carry the version they were
+-- issued with, and changing a user's status or admin flag bumps it, revoking older tokens.
+-- Kept by a trigger so every write path (entity saves, bulk moderation) bumps it
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version_changed_at TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE OR REPLACE FUNCTION bump_user_token_version() RETURNS trigger AS $$
+BEGIN
+    NEW.token_version := OLD.token_version + 1;
+    NEW.token_version_changed_at := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_users_token_version ON users;
+CREATE TRIGGER trg_users_token_version
+    BEFORE UPDATE OF status, is_admin ON users
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status OR OLD.is_admin IS DISTINCT FROM NEW.is_admin)
+    EXECUTE FUNCTION bump_user_token_version();
+
+-- Nodes poll for recently revoked users; only rows that were ever bumped are of interest
+CREATE INDEX IF NOT EXISTS idx_users_token_version_changed_at ON users (token_version_changed_at)
+    WHERE token_version > 0;
@@ -0,0 +1,44 @@
+-- Token revocations are polled by a revision number instead of a timestamp. now() is the
+-- transaction start time, so a change in a long transaction could commit with a timestamp
+-- older than the pollers' watermark and never be seen. The revision is drawn from a sequence
+-- by a deferred trigger, i.e. when the transaction commits, so revisions follow commit order
+CREATE SEQUENCE IF NOT EXISTS user_token_revision_seq;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_revision BIGINT;
+
+UPDATE users u SET token_revision = r.revision
+FROM (
+    SELECT id, nextval('user_token_revision_seq') AS revision
+    FROM (SELECT id FROM users WHERE token_version > 0 ORDER BY token_version_changed_at, id) ordered
+) r
+WHERE u.id = r.id;
+
+CREATE OR REPLACE FUNCTION bump_user_token_version() RETURNS trigger AS $$
+BEGIN
+    NEW.token_version := OLD.token_version + 1;
+    NEW.token_version_changed_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Only writes token_revision and token_version_changed_at, which fire neither trigger again
+CREATE OR REPLACE FUNCTION stamp_user_token_revision() RETURNS trigger AS $$
+BEGIN
+    UPDATE users
+    SET token_revision = nextval('user_token_revision_seq'),
+        token_version_changed_at = clock_timestamp()
+    WHERE id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_users_token_revision ON users;
+CREATE CONSTRAINT TRIGGER trg_users_token_revision
+    AFTER UPDATE OF status, is_admin ON users
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status OR OLD.is_admin IS DISTINCT FROM NEW.is_admin)
+    EXECUTE FUNCTION stamp_user_token_revision();
+
+CREATE INDEX IF NOT EXISTS idx_users_token_revision ON users (token_revision)
+    WHERE token_revision IS NOT NULL;
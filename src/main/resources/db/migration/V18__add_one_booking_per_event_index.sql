@@ -0,0 +1,4 @@
+-- One space per user per event, enforced by the database. The NOT EXISTS check in the booking
+-- statement cannot see a concurrent booking of another space that has not committed yet, so
+-- under READ COMMITTED two such bookings could both succeed
+CREATE UNIQUE INDEX IF NOT EXISTS uq_spaces_event_id_user_id ON spaces(event_id, user_id) WHERE user_id IS NOT NULL;
@@ -0,0 +1,70 @@
+package com.example.velvetden.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void allowsABurstOfCapacityThenAsksToRetry() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 3, 1000);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        // 3 per minute refills one token every 20 seconds
+        assertThat(limiter.tryAcquire("10.0.0.1")).isBetween(1L, 20L);
+
+        assertThat(limiter.getStats().getAllowed().get()).isEqualTo(3);
+        assertThat(limiter.getStats().getRejected().get()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsEachKeySeparately() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1, 1000);
+
+        assertThat(limiter.tryAcquire("a@example.com")).isZero();
+        assertThat(limiter.tryAcquire("a@example.com")).isPositive();
+        assertThat(limiter.tryAcquire("b@example.com")).isZero();
+        assertThat(limiter.getTrackedKeyCount()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsBucketsOnceTheyHaveRefilled() throws InterruptedException {
+        // 100,000 tokens a second, so a spent token is back well within the sleep
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 6_000_000, 1000);
+        limiter.tryAcquire("10.0.0.1");
+        assertThat(limiter.getTrackedKeyCount()).isEqualTo(1);
+
+        Thread.sleep(5);
+        limiter.evictIdle();
+
+        assertThat(limiter.getTrackedKeyCount()).isZero();
+    }
+
+    @Test
+    void letsNewKeysThroughUntrackedWhenFull() {
+        // 64 keys over 64 stripes leaves room for one key per stripe
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1, 64);
+        String first = "key-0";
+        String second = sameStripeAs(first);
+
+        assertThat(limiter.tryAcquire(first)).isZero();
+        assertThat(limiter.tryAcquire(second)).isZero();
+        assertThat(limiter.tryAcquire(second)).isZero();
+
+        assertThat(limiter.tryAcquire(first)).isPositive();
+        assertThat(limiter.getTrackedKeyCount()).isEqualTo(1);
+        assertThat(limiter.getStats().getUntracked().get()).isEqualTo(2);
+    }
+
+    private String sameStripeAs(String key) {
+        for (int i = 1; ; i++) {
+            String candidate = "key-" + i;
+            if (Math.floorMod(candidate.hashCode(), 64) == Math.floorMod(key.hashCode(), 64)) {
+                return candidate;
+            }
+        }
+    }
+}
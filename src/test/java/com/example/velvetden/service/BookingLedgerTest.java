@@ -0,0 +1,107 @@
+package com.example.velvetden.service;
+
+import com.example.velvetden.repository.SpaceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingLedgerTest {
+
+    private static final LocalDateTime TOMORROW = LocalDateTime.now().plusDays(1);
+    private static final LocalDateTime NEXT_WEEK = LocalDateTime.now().plusWeeks(1);
+
+    private SpaceRepository spaceRepository;
+    private BookingLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        spaceRepository = mock(SpaceRepository.class);
+        // Event 1 starts tomorrow with spaces 10 (booked by user 100), 11 and 12; event 2 next week with space 20
+        when(spaceRepository.findSlotsOfEventsAfter(any())).thenReturn(List.of(
+            new Object[] { 1L, 10L, 100L, TOMORROW },
+            new Object[] { 1L, 11L, null, TOMORROW },
+            new Object[] { 1L, 12L, null, TOMORROW },
+            new Object[] { 2L, 20L, null, NEXT_WEEK }));
+        ledger = new BookingLedger(spaceRepository);
+        ledger.rebuild();
+    }
+
+    @Test
+    void claimsAFreeSpaceOnce() {
+        assertThat(ledger.claim(1L, 11L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+        assertThat(ledger.claim(1L, 11L, 201L)).isEqualTo(BookingLedger.ClaimResult.SPACE_TAKEN);
+    }
+
+    @Test
+    void rejectsSpacesBookedBeforeTheRebuild() {
+        assertThat(ledger.claim(1L, 10L, 200L)).isEqualTo(BookingLedger.ClaimResult.SPACE_TAKEN);
+        assertThat(ledger.claim(1L, 11L, 100L)).isEqualTo(BookingLedger.ClaimResult.ALREADY_BOOKED);
+    }
+
+    @Test
+    void allowsOneSpacePerUserAndEvent() {
+        assertThat(ledger.claim(1L, 11L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+        assertThat(ledger.claim(1L, 12L, 200L)).isEqualTo(BookingLedger.ClaimResult.ALREADY_BOOKED);
+        assertThat(ledger.claim(2L, 20L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+    }
+
+    @Test
+    void failedClaimDoesNotCountAsTheUsersBooking() {
+        assertThat(ledger.claim(1L, 10L, 200L)).isEqualTo(BookingLedger.ClaimResult.SPACE_TAKEN);
+        assertThat(ledger.claim(1L, 11L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+    }
+
+    @Test
+    void reportsUnknownEventsAndSpaces() {
+        assertThat(ledger.claim(3L, 30L, 200L)).isEqualTo(BookingLedger.ClaimResult.NOT_TRACKED);
+        assertThat(ledger.claim(1L, 20L, 200L)).isEqualTo(BookingLedger.ClaimResult.SPACE_NOT_FOUND);
+    }
+
+    @Test
+    void releaseFreesTheSpaceOnlyForItsOwner() {
+        ledger.claim(1L, 11L, 200L);
+
+        ledger.release(11L, 201L);
+        assertThat(ledger.claim(1L, 11L, 201L)).isEqualTo(BookingLedger.ClaimResult.SPACE_TAKEN);
+
+        ledger.release(11L, 200L);
+        assertThat(ledger.claim(1L, 11L, 201L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+        assertThat(ledger.claim(1L, 12L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+    }
+
+    @Test
+    void tracksNewEventsThatHaveNotStarted() {
+        when(spaceRepository.findOpenSlotsByEventId(eq(3L), any())).thenReturn(List.<Object[]>of(
+            new Object[] { 30L, null, NEXT_WEEK }));
+
+        ledger.onEventChanged(new EventChangedEvent(3L));
+        ledger.onEventChanged(new EventChangedEvent(4L));
+
+        assertThat(ledger.isTracked(3L)).isTrue();
+        assertThat(ledger.isTracked(4L)).isFalse();
+        assertThat(ledger.claim(3L, 30L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+    }
+
+    @Test
+    void evictsEventsOnceTheyStart() {
+        ledger.claim(1L, 11L, 200L);
+
+        assertThat(ledger.evictEventsStartedBy(LocalDateTime.now())).isZero();
+        assertThat(ledger.evictEventsStartedBy(TOMORROW)).isEqualTo(1);
+
+        assertThat(ledger.isTracked(1L)).isFalse();
+        assertThat(ledger.isTracked(2L)).isTrue();
+        assertThat(ledger.claim(1L, 12L, 201L)).isEqualTo(BookingLedger.ClaimResult.NOT_TRACKED);
+        // Releases for spaces of evicted events are ignored
+        ledger.release(11L, 200L);
+        assertThat(ledger.claim(2L, 20L, 200L)).isEqualTo(BookingLedger.ClaimResult.CLAIMED);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.velvetden.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HoldExpiryWheelTest {
+
+    @Test
+    void returnsExpiredHoldsOnce() throws InterruptedException {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1);
+        wheel.schedule(10L, 100L, LocalDateTime.now().minusSeconds(1));
+
+        Thread.sleep(5);
+        List<HoldExpiryWheel.Hold> expired = wheel.advance();
+
+        assertThat(expired).extracting(HoldExpiryWheel.Hold::getSpaceId).containsExactly(10L);
+        assertThat(expired).extracting(HoldExpiryWheel.Hold::getUserId).containsExactly(100L);
+        assertThat(wheel.advance()).isEmpty();
+    }
+
+    @Test
+    void keepsHoldsUntilTheirDeadline() throws InterruptedException {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1);
+        wheel.schedule(10L, 100L, LocalDateTime.now().plus(Duration.ofMillis(200)));
+
+        Thread.sleep(5);
+        assertThat(wheel.advance()).isEmpty();
+
+        Thread.sleep(300);
+        assertThat(wheel.advance()).extracting(HoldExpiryWheel.Hold::getSpaceId).containsExactly(10L);
+    }
+
+    @Test
+    void keepsHoldsDueInALaterLapOfTheWheel() throws InterruptedException {
+        // With 1 ms ticks, one lap of the 512 buckets takes about half a second
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1);
+        wheel.schedule(10L, 100L, LocalDateTime.now().plusHours(1));
+        wheel.schedule(11L, 101L, LocalDateTime.now().minusSeconds(1));
+
+        Thread.sleep(600);
+
+        assertThat(wheel.advance()).extracting(HoldExpiryWheel.Hold::getSpaceId).containsExactly(11L);
+        assertThat(wheel.advance()).isEmpty();
+    }
+
+    @Test
+    void expiresHoldsScheduledWhileASweepRuns() throws InterruptedException {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1);
+        Set<Long> expired = ConcurrentHashMap.newKeySet();
+        AtomicBoolean scheduling = new AtomicBoolean(true);
+
+        // Sweeps back to back, the way the scheduled sweep races the startup rescheduling
+        Thread sweeper = new Thread(() -> {
+            while (scheduling.get()) {
+                wheel.advance().forEach(hold -> expired.add(hold.getSpaceId()));
+            }
+        });
+        sweeper.start();
+        for (long spaceId = 0; spaceId < 2000; spaceId++) {
+            wheel.schedule(spaceId, 100L, LocalDateTime.now().minusSeconds(1));
+        }
+        scheduling.set(false);
+        sweeper.join();
+
+        // Well under one lap (~512 ms): a hold placed behind the sweep would still be waiting
+        Thread.sleep(20);
+        wheel.advance().forEach(hold -> expired.add(hold.getSpaceId()));
+        assertThat(expired).hasSize(2000);
+    }
+}